@@ -0,0 +1,81 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.gui.DialogBuilder;
+import com.harismehuljic.daedalus.gui.elements.actions.ActionButton;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.body.TextBody;
+import com.harismehuljic.daedalus.gui.elements.input.BooleanInput;
+import com.harismehuljic.daedalus.gui.elements.input.ButtonSelectorInput;
+import com.harismehuljic.daedalus.gui.elements.input.NumberInput;
+import com.harismehuljic.daedalus.gui.elements.input.TextInput;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+/**
+ * Shared setup for the benchmarks: bootstraps the game's registries once and builds dialogs of a realistic size.
+ */
+final class BenchmarkDialogs {
+    static final Identifier CONFIRM = Identifier.of("daedalus", "benchmark_confirm");
+    static final Identifier CANCEL = Identifier.of("daedalus", "benchmark_cancel");
+    static final DialogCallback NO_OP = (player, payload) -> {};
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkDialogs() {}
+
+    /**
+     * Initializes the game's registries, which some dialog elements depend on. Safe to call more than once.
+     */
+    static synchronized void bootstrap() {
+        if (bootstrapped) return;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        bootstrapped = true;
+    }
+
+    /**
+     * Creates a builder for a form-like dialog, with a few lines of text, one input of each type, and two buttons.
+     *
+     * @param options The number of options of the button selector input.
+     * @return A builder which has not been compiled yet.
+     */
+    static DialogBuilder form(int options) {
+        ButtonSelectorInput selector = new ButtonSelectorInput("mode", 200, new StylableText("Mode"));
+        for (int i = 0; i < options; i++) {
+            selector.addOption("option_" + i, new StylableText("Option " + i));
+        }
+
+        return new DialogBuilder()
+                .setTitle(new StylableText("Settings").setColor(Formatting.GOLD).setBold(true))
+                .addBodyElement(new TextBody(new StylableText("Change your settings below."), 200))
+                .addBodyElement(new TextBody(new StylableText("Changes are saved when you press confirm.")
+                        .setColor(Formatting.GRAY), 200))
+                .addBodyElement(new TextBody(new StylableText("Warning: ").setColor(Formatting.RED)
+                        .append(new StylableText("some settings require a rejoin.")), 200))
+                .addInputElement(new TextInput("name", 200, new StylableText("Name")).setMaxLength(32))
+                .addInputElement(new NumberInput("volume", 200, new StylableText("Volume"), 0, 100, 50, 5))
+                .addInputElement(new BooleanInput("notifications", new StylableText("Notifications"), true))
+                .addInputElement(selector)
+                .addActionButton(new ActionButton(CONFIRM, new StylableText("Confirm"), NO_OP))
+                .addActionButton(new ActionButton(CANCEL, new StylableText("Cancel"), NO_OP));
+    }
+
+    /**
+     * Creates the input values a client would send back for {@link #form(int)}.
+     *
+     * @return The input values, without routing data.
+     */
+    static NbtCompound formValues() {
+        NbtCompound values = new NbtCompound();
+        values.putString("name", "Steve");
+        values.putFloat("volume", 35);
+        values.putBoolean("notifications", false);
+        values.putString("mode", "option_0");
+        return values;
+    }
+}
@@ -0,0 +1,70 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.gui.elements.input.ButtonSelectorInput;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import com.harismehuljic.daedalus.gui.elements.input.InputElement;
+import com.harismehuljic.daedalus.gui.elements.input.PayloadSchema;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.dialog.type.DialogInput;
+import net.minecraft.nbt.NbtCompound;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures button selector inputs with many options: creating the input, compiling its constraint, and validating a
+ * selected option against it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ButtonSelectorBenchmark {
+    @Param({"16", "256", "1024"})
+    public int options;
+
+    private ButtonSelectorInput selector;
+    private PayloadSchema schema;
+    private NbtCompound payload;
+
+    @Setup
+    public void setup() {
+        BenchmarkDialogs.bootstrap();
+        this.selector = this.createSelector();
+        this.schema = new PayloadSchema(List.<InputElement>of(this.selector), 0);
+        this.payload = new NbtCompound();
+        this.payload.putString("choice", "option_" + (this.options - 1));
+    }
+
+    private ButtonSelectorInput createSelector() {
+        ButtonSelectorInput selector = new ButtonSelectorInput("choice", 200, new StylableText("Choice"));
+        for (int i = 0; i < this.options; i++) {
+            selector.addOption("option_" + i, new StylableText("Option " + i));
+        }
+        return selector;
+    }
+
+    @Benchmark
+    public ButtonSelectorInput addOptions() {
+        return this.createSelector();
+    }
+
+    @Benchmark
+    public DialogInput getInput() {
+        return this.selector.getInput();
+    }
+
+    @Benchmark
+    public PayloadSchema compileSchema() {
+        return new PayloadSchema(List.<InputElement>of(this.selector), 0);
+    }
+
+    @Benchmark
+    public boolean decodeAndValidate() {
+        DialogPayload decoded = this.schema.decode(this.payload);
+        return this.schema.validate(decoded);
+    }
+}
@@ -0,0 +1,67 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.data.DialogCallbackRegistry;
+import com.harismehuljic.daedalus.data.DialogCallbackTable;
+import com.harismehuljic.daedalus.data.DialogSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening and looking up sessions in a {@link DialogCallbackRegistry} that already holds a session for every
+ * online player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallbackRegistryBenchmark {
+    @Param({"1000", "5000", "10000"})
+    public int players;
+
+    private DialogCallbackRegistry registry;
+    private DialogCallbackTable callbacks;
+    private UUID[] playerIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(int bound) {
+            int index = this.next;
+            this.next = index + 1 == bound ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        BenchmarkDialogs.bootstrap();
+        this.registry = new DialogCallbackRegistry();
+        this.callbacks = BenchmarkDialogs.form(8).compile().getCallbacks();
+        this.playerIds = new UUID[this.players];
+        for (int i = 0; i < this.players; i++) {
+            this.playerIds[i] = UUID.randomUUID();
+            this.registry.open(this.playerIds[i], this.callbacks, 0);
+        }
+    }
+
+    @Benchmark
+    public DialogSession open(Cursor cursor) {
+        return this.registry.open(this.playerIds[cursor.next(this.players)], this.callbacks, 0);
+    }
+
+    @Benchmark
+    public DialogSession get(Cursor cursor) {
+        return this.registry.getSession(this.playerIds[cursor.next(this.players)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DialogSession getContended(Cursor cursor) {
+        return this.registry.getSession(this.playerIds[cursor.next(this.players)]);
+    }
+}
@@ -0,0 +1,82 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.data.DialogCallbackRegistry;
+import com.harismehuljic.daedalus.data.DialogCallbackTable;
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.data.DialogSession;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import net.minecraft.nbt.NbtCompound;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the payload handling {@link DialogManager#executePlayerAction} performs on the network thread: looking up
+ * the player's session, resolving the clicked button, decoding the payload and validating it.
+ * <p>
+ * The click is routed through the same classes, but without a {@code ServerPlayerEntity}, which cannot be created
+ * without a running server. Every iteration copies the payload first, since resolving a click removes its routing
+ * data. {@link #copyOnly()} measures that copy on its own.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickRoutingBenchmark {
+    private DialogCallbackRegistry registry;
+    private UUID playerId;
+    private NbtCompound validPayload;
+    private NbtCompound invalidPayload;
+    private NbtCompound stalePayload;
+
+    @Setup
+    public void setup() {
+        BenchmarkDialogs.bootstrap();
+        this.registry = new DialogCallbackRegistry();
+        this.playerId = UUID.randomUUID();
+
+        DialogCallbackTable callbacks = BenchmarkDialogs.form(8).compile().getCallbacks();
+        this.registry.open(this.playerId, callbacks, 0);
+
+        this.validPayload = BenchmarkDialogs.formValues().copyFrom(callbacks.getRoutingData(0));
+        this.invalidPayload = this.validPayload.copy();
+        this.invalidPayload.putFloat("volume", 1000);
+
+        DialogCallbackTable staleCallbacks = BenchmarkDialogs.form(8).compile().getCallbacks();
+        this.stalePayload = BenchmarkDialogs.formValues().copyFrom(staleCallbacks.getRoutingData(0));
+    }
+
+    @Benchmark
+    public NbtCompound copyOnly() {
+        return this.validPayload.copy();
+    }
+
+    @Benchmark
+    public DialogPayload routeValid() {
+        return this.route(this.validPayload.copy());
+    }
+
+    @Benchmark
+    public DialogPayload routeInvalid() {
+        return this.route(this.invalidPayload.copy());
+    }
+
+    @Benchmark
+    public DialogPayload routeStale() {
+        return this.route(this.stalePayload.copy());
+    }
+
+    private DialogPayload route(NbtCompound nbt) {
+        DialogSession session = this.registry.getSession(this.playerId);
+        int index = session.resolveIndex(BenchmarkDialogs.CONFIRM, nbt);
+        if (index < 0 || session.isExit(index)) return null;
+
+        DialogPayload payload = session.decode(nbt);
+        if (!session.validate(payload)) return null;
+        return session.getCallback(index) != null ? payload : null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.gui.DialogBuilder;
+import com.harismehuljic.daedalus.gui.DialogTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of compiling a dialog, which is what {@link DialogBuilder#build} does before registering the
+ * dialog's callbacks for a player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialogBuilderBenchmark {
+    private DialogBuilder cachedBuilder;
+
+    @Setup
+    public void setup() {
+        BenchmarkDialogs.bootstrap();
+        this.cachedBuilder = BenchmarkDialogs.form(8);
+        this.cachedBuilder.compile();
+    }
+
+    @Benchmark
+    public DialogTemplate defineAndCompile() {
+        return BenchmarkDialogs.form(8).compile();
+    }
+
+    @Benchmark
+    public DialogTemplate compileCached() {
+        return this.cachedBuilder.compile();
+    }
+}
@@ -0,0 +1,50 @@
+package com.harismehuljic.daedalus.benchmark;
+
+import com.harismehuljic.daedalus.gui.elements.text.Placeholder;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building styled text, and filling in the placeholders of text that has already been built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StylableTextBenchmark {
+    private static final Placeholder<String> PLAYER = Placeholder.of("player");
+
+    private StylableText greeting;
+    private PlaceholderValues values;
+
+    @Setup
+    public void setup() {
+        BenchmarkDialogs.bootstrap();
+        this.greeting = new StylableText("Welcome back, ").setColor(Formatting.GRAY)
+                .append(new StylableText().appendPlaceholder(PLAYER).setColor(Formatting.GOLD).setBold(true))
+                .append(new StylableText("!"));
+        this.values = new PlaceholderValues().set(PLAYER, "Steve");
+    }
+
+    @Benchmark
+    public Text styleChain() {
+        return new StylableText("Warning: ").setColor(Formatting.RED).setBold(true)
+                .append(new StylableText("this cannot be undone").setItalic(true).setUnderline(true))
+                .append(new StylableText(" (").setColor(0xAAAAAA))
+                .append(new StylableText("confirm").setColor(Formatting.GREEN).setStrikethrough(false))
+                .append(new StylableText(")").setColor(0xAAAAAA))
+                .getText();
+    }
+
+    @Benchmark
+    public Text resolvePlaceholder() {
+        return this.greeting.resolve(this.values);
+    }
+}
@@ -0,0 +1,36 @@
+package com.harismehuljic.daedalus;
+
+import com.harismehuljic.daedalus.commands.DaedalusCommand;
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.data.StaticDialogRegistry;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.registry.DynamicRegistrySetupCallback;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The main entrypoint for Daedalus.
+ * <p>
+ * Hooks the dialog manager into the server lifecycle so that registered dialog callbacks are released when
+ * players disconnect, when the server stops, and when they have been idle for too long, and adds static
+ * dialogs to the dialog registry. Also registers the {@code /daedalus} command, which reports dialog metrics.
+ * </p>
+ */
+public class Daedalus implements ModInitializer {
+    public static final String MOD_ID = "daedalus";
+
+    public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
+
+    @Override
+    public void onInitialize() {
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> DialogManager.onPlayerDisconnect(handler.player));
+        ServerTickEvents.END_SERVER_TICK.register(DialogManager::tick);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> DialogManager.clear());
+        DynamicRegistrySetupCallback.EVENT.register(StaticDialogRegistry::onRegistrySetup);
+        CommandRegistrationCallback.EVENT.register(DaedalusCommand::register);
+    }
+}
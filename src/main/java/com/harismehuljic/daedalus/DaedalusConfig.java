@@ -0,0 +1,168 @@
+package com.harismehuljic.daedalus;
+
+import com.harismehuljic.daedalus.data.ClickRateLimit;
+import net.minecraft.util.Identifier;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runtime configuration for Daedalus.
+ * <p>
+ * All values have sensible defaults and may be changed at any time, typically from a mod's initializer.
+ * </p>
+ */
+public final class DaedalusConfig {
+    private static volatile long sessionIdleTimeoutMillis = 10 * 60 * 1000L;
+    private static volatile int maxClicksPerTick = 128;
+    private static volatile int encodedDialogCacheSize = 64;
+    private static volatile int markupCacheSize = 256;
+    private static volatile ClickRateLimit defaultClickRateLimit = new ClickRateLimit(10, 20);
+    private static final ConcurrentHashMap<Identifier, ClickRateLimit> CLICK_RATE_LIMITS = new ConcurrentHashMap<>();
+
+    private DaedalusConfig() {}
+
+    /**
+     * Returns how long a dialog session may go without a click before its callbacks are evicted.
+     *
+     * @return The idle timeout in milliseconds, or 0 if idle sessions are never evicted.
+     */
+    public static long getSessionIdleTimeout() {
+        return sessionIdleTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a dialog session may go without a click before its callbacks are evicted.
+     *
+     * @param millis The idle timeout in milliseconds. A value of 0 disables idle eviction.
+     * @throws IllegalArgumentException If the timeout is negative.
+     *
+     * @implNote By default, this is 10 minutes. Sessions are still evicted when the dialog is answered, replaced
+     * by another dialog, or when the player disconnects, regardless of this setting.
+     */
+    public static void setSessionIdleTimeout(long millis) throws IllegalArgumentException {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Session idle timeout must not be negative.");
+        }
+        sessionIdleTimeoutMillis = millis;
+    }
+
+    /**
+     * Returns the maximum number of dialog clicks executed on the server thread per tick.
+     *
+     * @return The maximum number of clicks executed per tick.
+     */
+    public static int getMaxClicksPerTick() {
+        return maxClicksPerTick;
+    }
+
+    /**
+     * Sets the maximum number of dialog clicks executed on the server thread per tick.
+     *
+     * @param max The maximum number of clicks executed per tick. Must be a positive integer.
+     * @throws IllegalArgumentException If the provided value is not a positive integer.
+     *
+     * @implNote By default, this is 128. Clicks beyond this limit are not dropped; they remain queued and are executed
+     * on the following ticks.
+     */
+    public static void setMaxClicksPerTick(int max) throws IllegalArgumentException {
+        if (max <= 0) {
+            throw new IllegalArgumentException("Max clicks per tick must be a positive integer.");
+        }
+        maxClicksPerTick = max;
+    }
+
+    /**
+     * Returns the maximum number of encoded show-dialog packets kept for reuse.
+     *
+     * @return The maximum number of cached encoded dialogs.
+     */
+    public static int getEncodedDialogCacheSize() {
+        return encodedDialogCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of encoded show-dialog packets kept for reuse.
+     *
+     * @param size The maximum number of cached encoded dialogs. A value of 0 disables the cache.
+     * @throws IllegalArgumentException If the size is negative.
+     *
+     * @implNote By default, this is 64. Only dialogs that are sent more than once are cached, and the least recently
+     * sent dialog is evicted first.
+     */
+    public static void setEncodedDialogCacheSize(int size) throws IllegalArgumentException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Encoded dialog cache size must not be negative.");
+        }
+        encodedDialogCacheSize = size;
+    }
+
+    /**
+     * Returns the maximum number of parsed markup strings kept for reuse.
+     *
+     * @return The maximum number of cached markup strings.
+     */
+    public static int getMarkupCacheSize() {
+        return markupCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of parsed markup strings kept for reuse.
+     *
+     * @param size The maximum number of cached markup strings. A value of 0 disables the cache.
+     * @throws IllegalArgumentException If the size is negative.
+     *
+     * @implNote By default, this is 256. The least recently parsed string is evicted first.
+     */
+    public static void setMarkupCacheSize(int size) throws IllegalArgumentException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Markup cache size must not be negative.");
+        }
+        markupCacheSize = size;
+    }
+
+    /**
+     * Returns the rate limit applied to clicks on actions without their own rate limit.
+     *
+     * @return The default click rate limit.
+     */
+    public static ClickRateLimit getDefaultClickRateLimit() {
+        return defaultClickRateLimit;
+    }
+
+    /**
+     * Sets the rate limit applied to clicks on actions without their own rate limit. All such actions share a single
+     * limit per player.
+     *
+     * @param limit The default click rate limit, or {@link ClickRateLimit#UNLIMITED} to disable rate limiting.
+     *
+     * @implNote By default, each player may click 10 times per second, with bursts of up to 20 clicks.
+     */
+    public static void setDefaultClickRateLimit(ClickRateLimit limit) {
+        defaultClickRateLimit = limit;
+    }
+
+    /**
+     * Returns the rate limit configured for a specific action.
+     *
+     * @param action The identifier of the action.
+     * @return The action's click rate limit, or null if the action uses the default rate limit.
+     */
+    public static ClickRateLimit getClickRateLimit(Identifier action) {
+        return CLICK_RATE_LIMITS.get(action);
+    }
+
+    /**
+     * Sets a rate limit for clicks on a specific action, which is tracked separately from the default rate limit.
+     *
+     * @param action The identifier of the action.
+     * @param limit  The action's click rate limit, or null to make the action use the default rate limit again.
+     */
+    public static void setClickRateLimit(Identifier action, ClickRateLimit limit) {
+        if (limit == null) {
+            CLICK_RATE_LIMITS.remove(action);
+        }
+        else {
+            CLICK_RATE_LIMITS.put(action, limit);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.harismehuljic.daedalus.commands;
+
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import com.harismehuljic.daedalus.metrics.DialogMetrics;
+import com.harismehuljic.daedalus.metrics.Histogram;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+import java.util.Comparator;
+import java.util.Map;
+
+import static net.minecraft.server.command.CommandManager.literal;
+
+/**
+ * The {@code /daedalus} command, which reports the metrics collected by {@link DialogMetrics}.
+ */
+public class DaedalusCommand {
+    private static final int MAX_LISTED_ACTIONS = 10;
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher, CommandRegistryAccess registryAccess,
+                                CommandManager.RegistrationEnvironment environment) {
+        dispatcher.register(literal("daedalus")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(literal("stats")
+                        .executes(DaedalusCommand::executeStats)
+                )
+                .then(literal("reset")
+                        .executes(DaedalusCommand::executeReset)
+                )
+        );
+    }
+
+    private static int executeStats(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+
+        send(source, new StylableText("Daedalus stats").setColor(Formatting.GOLD).setBold(true));
+        send(source, line("Open sessions", String.format("%d (%d queued clicks, %d rate limited, %d invalid, %d timed out)",
+                DialogMetrics.getRegistrySize(), DialogManager.getQueuedClickCount(),
+                DialogManager.getRateLimitedClickCount(), DialogManager.getInvalidClickCount(),
+                DialogManager.getTimedOutSessionCount())));
+        send(source, line("Opens", String.format("%.1f/s (%d total)",
+                DialogMetrics.getOpensPerSecond(), DialogMetrics.getTotalOpens())));
+        send(source, line("Build time", formatNanos(DialogMetrics.getBuildTime())));
+        send(source, line("Encoded size", formatBytes(DialogMetrics.getEncodedSize())));
+        send(source, line("Click latency", formatNanos(DialogMetrics.getClickLatency())));
+
+        Map<Identifier, Histogram.Snapshot> callbackTimes = DialogMetrics.getCallbackTimes();
+        if (callbackTimes.isEmpty()) return 1;
+
+        send(source, new StylableText("Slowest callbacks (by total time)").setColor(Formatting.GOLD));
+        callbackTimes.entrySet().stream()
+                .sorted(Comparator.comparingDouble(entry -> -entry.getValue().mean() * entry.getValue().count()))
+                .limit(MAX_LISTED_ACTIONS)
+                .forEach(entry -> send(source, line(entry.getKey().toString(), formatNanos(entry.getValue()))));
+
+        return 1;
+    }
+
+    private static int executeReset(CommandContext<ServerCommandSource> context) {
+        DialogMetrics.reset();
+        send(context.getSource(), new StylableText("Daedalus metrics have been reset.").setColor(Formatting.GRAY));
+        return 1;
+    }
+
+    private static StylableText line(String name, String value) {
+        return new StylableText(name + ": ").setColor(Formatting.GRAY)
+                .append(new StylableText(value).setColor(Formatting.WHITE));
+    }
+
+    private static String formatNanos(Histogram.Snapshot snapshot) {
+        return String.format("n=%d, mean %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms", snapshot.count(),
+                snapshot.mean() / 1.0e6, snapshot.p95() / 1.0e6, snapshot.p99() / 1.0e6, snapshot.max() / 1.0e6);
+    }
+
+    private static String formatBytes(Histogram.Snapshot snapshot) {
+        return String.format("n=%d, mean %.0f B, p95 %d B, p99 %d B, max %d B", snapshot.count(),
+                snapshot.mean(), snapshot.p95(), snapshot.p99(), snapshot.max());
+    }
+
+    private static void send(ServerCommandSource source, StylableText text) {
+        source.sendFeedback(text::getText, false);
+    }
+}
@@ -0,0 +1,43 @@
+package com.harismehuljic.daedalus.data;
+
+/**
+ * A token bucket rate limit for dialog clicks.
+ * <p>
+ * Each player starts with {@code burst} tokens. Every click consumes one token, and tokens are refilled at
+ * {@code clicksPerSecond} up to {@code burst}. Clicks arriving while the bucket is empty are dropped.
+ * </p>
+ *
+ * @param clicksPerSecond The sustained number of clicks allowed per second. Must be a positive, finite number.
+ * @param burst           The maximum number of clicks allowed in quick succession. Must be a positive integer.
+ */
+public record ClickRateLimit(double clicksPerSecond, int burst) {
+    /**
+     * A rate limit which allows every click. This is the only rate limit with an infinite rate.
+     */
+    public static final ClickRateLimit UNLIMITED = new ClickRateLimit(Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+    /**
+     * Constructs a ClickRateLimit with the given rate and burst size.
+     *
+     * @throws IllegalArgumentException If the rate is not a positive, finite number or the burst size is not a positive
+     * integer.
+     */
+    public ClickRateLimit {
+        boolean unlimited = clicksPerSecond == Double.POSITIVE_INFINITY && burst == Integer.MAX_VALUE;
+        if (!unlimited && !(clicksPerSecond > 0 && Double.isFinite(clicksPerSecond))) {
+            throw new IllegalArgumentException("Clicks per second must be a positive, finite number.");
+        }
+        else if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be a positive integer.");
+        }
+    }
+
+    /**
+     * Returns whether this rate limit allows every click.
+     *
+     * @return True if this is {@link #UNLIMITED}, false otherwise.
+     */
+    public boolean isUnlimited() {
+        return this.clicksPerSecond == Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,117 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.DaedalusConfig;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate at which each player can send dialog clicks, using one token bucket per player.
+ * <p>
+ * Actions with their own {@link ClickRateLimit} configured get a separate bucket per player, while every other action
+ * shares the player's default bucket. Buckets are only ever created for configured actions, so a client sending
+ * arbitrary action identifiers cannot grow this limiter. Only clicks that match the player's open Daedalus dialog are
+ * checked, on the network thread, so excess clicks are dropped before they cost any work on the server thread, while
+ * clicks meant for vanilla or other mods are never limited.
+ * </p>
+ *
+ * @see DaedalusConfig#setDefaultClickRateLimit(ClickRateLimit)
+ * @see DaedalusConfig#setClickRateLimit(Identifier, ClickRateLimit)
+ */
+public class ClickRateLimiter {
+    private final ConcurrentHashMap<UUID, PlayerBuckets> players = new ConcurrentHashMap<>();
+    private final AtomicLong droppedClicks = new AtomicLong();
+
+    /**
+     * The token buckets of a single player.
+     */
+    private static class PlayerBuckets {
+        private final TokenBucket shared = new TokenBucket();
+        private final ConcurrentHashMap<Identifier, TokenBucket> actions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A token bucket which is refilled lazily whenever a token is requested.
+     */
+    private static class TokenBucket {
+        private double tokens = Double.NaN;
+        private long lastRefill;
+
+        /**
+         * Attempts to take a token from this bucket.
+         *
+         * @param limit The rate limit the bucket is refilled with.
+         * @param now   The current time in nanoseconds.
+         * @return True if a token was taken, false if the bucket is empty.
+         */
+        private synchronized boolean tryAcquire(ClickRateLimit limit, long now) {
+            if (Double.isNaN(this.tokens)) {
+                this.tokens = limit.burst();
+            }
+            else {
+                double refill = (now - this.lastRefill) / 1_000_000_000.0 * limit.clicksPerSecond();
+                this.tokens = Math.min(limit.burst(), this.tokens + refill);
+            }
+            this.lastRefill = now;
+
+            if (this.tokens < 1) {
+                return false;
+            }
+            this.tokens--;
+            return true;
+        }
+    }
+
+    /**
+     * Attempts to take a token for a click, counting the click as dropped if the player has exceeded the rate limit.
+     *
+     * @param playerId The UUID of the player who clicked.
+     * @param action   The identifier of the clicked action.
+     * @return True if the click is allowed, false if it should be dropped.
+     */
+    public boolean tryAcquire(UUID playerId, Identifier action) {
+        ClickRateLimit actionLimit = DaedalusConfig.getClickRateLimit(action);
+        ClickRateLimit limit = actionLimit != null ? actionLimit : DaedalusConfig.getDefaultClickRateLimit();
+        if (limit.isUnlimited()) {
+            return true;
+        }
+
+        PlayerBuckets buckets = this.players.computeIfAbsent(playerId, id -> new PlayerBuckets());
+        TokenBucket bucket = actionLimit != null
+                ? buckets.actions.computeIfAbsent(action, id -> new TokenBucket())
+                : buckets.shared;
+
+        if (bucket.tryAcquire(limit, System.nanoTime())) {
+            return true;
+        }
+        this.droppedClicks.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Removes the buckets of a player.
+     *
+     * @param playerId The UUID of the player.
+     */
+    public void remove(UUID playerId) {
+        this.players.remove(playerId);
+    }
+
+    /**
+     * Removes the buckets of every player.
+     */
+    public void clear() {
+        this.players.clear();
+    }
+
+    /**
+     * Returns the number of clicks that have been dropped for exceeding the rate limit.
+     *
+     * @return The total number of dropped clicks.
+     */
+    public long getDroppedClicks() {
+        return this.droppedClicks.get();
+    }
+}
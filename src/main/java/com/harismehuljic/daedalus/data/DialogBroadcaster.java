@@ -0,0 +1,84 @@
+package com.harismehuljic.daedalus.data;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Spreads the opening of a dialog for many players over several ticks.
+ * <p>
+ * Each scheduled broadcast opens its dialog for a fixed number of players per tick, so that sending a dialog to the
+ * whole server does not spike a single tick. Players who disconnect before their turn are skipped. This class is
+ * only used from the server thread.
+ * </p>
+ */
+public class DialogBroadcaster {
+    private final List<Broadcast> broadcasts = new ArrayList<>();
+
+    /**
+     * A broadcast which still has players left to open its dialog for.
+     */
+    private static class Broadcast {
+        private final Iterator<ServerPlayerEntity> remaining;
+        private final int playersPerTick;
+        private final Consumer<ServerPlayerEntity> opener;
+
+        private Broadcast(List<ServerPlayerEntity> players, int playersPerTick, Consumer<ServerPlayerEntity> opener) {
+            this.remaining = players.iterator();
+            this.playersPerTick = playersPerTick;
+            this.opener = opener;
+        }
+    }
+
+    /**
+     * Schedules a dialog to be opened for the given players, starting on the next tick.
+     *
+     * @param players        The players to open the dialog for. The players are copied when the broadcast is scheduled.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @param opener         The function which opens the dialog for a single player.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     */
+    public void schedule(Iterable<? extends ServerPlayerEntity> players, int playersPerTick, Consumer<ServerPlayerEntity> opener)
+            throws IllegalArgumentException {
+        if (playersPerTick <= 0) {
+            throw new IllegalArgumentException("Players per tick must be a positive integer.");
+        }
+
+        List<ServerPlayerEntity> snapshot = new ArrayList<>();
+        players.forEach(snapshot::add);
+        this.broadcasts.add(new Broadcast(snapshot, playersPerTick, opener));
+    }
+
+    /**
+     * Opens the dialogs of every scheduled broadcast for its next batch of players, removing broadcasts that have
+     * finished.
+     */
+    public void tick() {
+        Iterator<Broadcast> iterator = this.broadcasts.iterator();
+        while (iterator.hasNext()) {
+            Broadcast broadcast = iterator.next();
+            int opened = 0;
+            while (opened < broadcast.playersPerTick && broadcast.remaining.hasNext()) {
+                ServerPlayerEntity player = broadcast.remaining.next();
+                if (player.isDisconnected()) continue;
+
+                broadcast.opener.accept(player);
+                opened++;
+            }
+
+            if (!broadcast.remaining.hasNext()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancels every scheduled broadcast.
+     */
+    public void clear() {
+        this.broadcasts.clear();
+    }
+}
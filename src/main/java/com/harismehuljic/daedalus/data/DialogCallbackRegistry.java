@@ -1,49 +1,100 @@
 package com.harismehuljic.daedalus.data;
 
-import net.minecraft.util.Identifier;
-import java.util.HashMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import net.minecraft.nbt.NbtCompound;
 
 /**
- * Registry for dialog callbacks, allowing actions to be registered and retrieved based on action identifiers and player UUIDs.
+ * Registry for dialog callbacks, allowing the callbacks of an opened dialog to be registered and retrieved based on
+ * player UUIDs.
  * <p>
- * This class provides methods to register callbacks for specific actions and retrieve them when needed.
+ * Callbacks are grouped into one {@link DialogSession} per player, since a player can only have a single dialog open
+ * at a time. Opening a new dialog replaces the previous session, so the size of this registry is bounded by the number
+ * of players with an open dialog rather than by the number of dialogs that have ever been opened.
+ * </p>
+ * <p>
+ * The registry is safe to use from multiple threads. Lookups never block, which allows clicks to be resolved on the
+ * network thread before any work is scheduled on the server thread.
  * </p>
  */
 public class DialogCallbackRegistry {
-    private final HashMap<Identifier, HashMap<UUID, Consumer<NbtCompound>>> callbacks = new HashMap<>();
+    private final ConcurrentHashMap<UUID, DialogSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a new session for a player, replacing any session the player already had.
+     *
+     * @param playerId  The UUID of the player the dialog is opened for.
+     * @param callbacks The callbacks of the dialog.
+     * @param now       The current time in milliseconds.
+     * @return The newly opened session.
+     */
+    public DialogSession open(UUID playerId, DialogCallbackTable callbacks, long now) {
+        DialogSession session = new DialogSession(playerId, callbacks, now);
+        this.sessions.put(playerId, session);
+        return session;
+    }
+
+    /**
+     * Retrieves the current session of a player.
+     *
+     * @param playerId The UUID of the player.
+     * @return The player's session, or null if the player has no open dialog.
+     */
+    public DialogSession getSession(UUID playerId) {
+        return this.sessions.get(playerId);
+    }
+
+    /**
+     * Removes the given session, but only if it is still the player's current session.
+     *
+     * @param session The session to remove.
+     * @return True if the session was removed, false if it had already been replaced or removed.
+     */
+    public boolean remove(DialogSession session) {
+        return this.sessions.remove(session.getPlayerId(), session);
+    }
 
     /**
-     * Registers a callback for a specific action and player.
-     * <p>
-     * This method allows registration of a callback that will be executed when the specified
-     * action is triggered by the player.
-     * </p>
+     * Removes the current session of a player, if any.
      *
-     * @param action    The identifier for the action to register the callback for.
-     * @param playerId  The UUID of the player who will receive the callback.
-     * @param callback  The callback function to be executed when the action is triggered.
+     * @param playerId The UUID of the player.
+     */
+    public void remove(UUID playerId) {
+        this.sessions.remove(playerId);
+    }
+
+    /**
+     * Removes every session that has been idle for longer than the given timeout.
+     *
+     * @param now       The current time in milliseconds.
+     * @param timeout   The idle timeout in milliseconds.
+     * @param onEvicted The consumer receiving each evicted session.
+     * @return The number of sessions that were evicted.
+     */
+    public int evictIdle(long now, long timeout, Consumer<DialogSession> onEvicted) {
+        int evicted = 0;
+        for (DialogSession session : this.sessions.values()) {
+            if (session.isIdle(now, timeout) && this.remove(session)) {
+                onEvicted.accept(session);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes every session from the registry.
      */
-    public void register(Identifier action, UUID playerId, Consumer<NbtCompound> callback) {
-        callbacks.computeIfAbsent(action, k -> new HashMap<>())
-                 .put(playerId, callback);
+    public void clear() {
+        this.sessions.clear();
     }
 
     /**
-     * Retrieves the callback for a specific action and player.
-     * <p>
-     * This method returns the callback function associated with the specified action and player UUID,
-     * or null if no such callback exists.
-     * </p>
+     * Returns the number of open sessions.
      *
-     * @param action   The identifier for the action to retrieve the callback for.
-     * @param playerId The UUID of the player whose callback is being requested.
-     * @return The callback function, or null if not found.
+     * @return The number of players that currently have callbacks registered.
      */
-    public Consumer<NbtCompound> get(Identifier action, UUID playerId) {
-        HashMap<UUID, Consumer<NbtCompound>> playerMap = callbacks.get(action);
-        return playerMap != null ? playerMap.get(playerId) : null;
+    public int size() {
+        return this.sessions.size();
     }
 }
@@ -0,0 +1,178 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import com.harismehuljic.daedalus.gui.elements.input.PayloadSchema;
+import net.minecraft.dialog.AfterAction;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The callbacks of a compiled dialog, indexed by the position of their action button.
+ * <p>
+ * Every table is assigned a compact token when it is created. Each action button of the dialog carries that token and
+ * the button's index in its payload, so a click is resolved by comparing the token against the player's current
+ * session and indexing into the table. Clicks carrying the token of a dialog the player no longer has open, or a
+ * forged token, never match and are rejected without any map lookups.
+ * </p>
+ */
+public class DialogCallbackTable {
+    /**
+     * The payload key holding the token of the dialog a click originates from.
+     */
+    public static final String TOKEN_KEY = "daedalus:token";
+    /**
+     * The payload key holding the index of the action button that was clicked.
+     */
+    public static final String INDEX_KEY = "daedalus:action";
+
+    private static final AtomicInteger NEXT_TOKEN = new AtomicInteger(ThreadLocalRandom.current().nextInt());
+
+    private final int token;
+    private final Identifier[] actionIds;
+    private final DialogCallback[] callbacks;
+    private final PayloadSchema schema;
+    private final AfterAction afterAction;
+    private final int exitIndex;
+    private final DialogTimeout timeout;
+
+    /**
+     * Constructs a DialogCallbackTable from the identifiers and callbacks of a dialog's action buttons and its exit
+     * action.
+     *
+     * @param actionIds   The identifiers of the action buttons and the exit action, in the order they appear in the
+     *                    dialog.
+     * @param callbacks   The callbacks of the action buttons and the exit action, in the same order as
+     *                    {@code actionIds}.
+     * @param schema      The compiled schema of the dialog's input elements.
+     * @param afterAction What the client does with the dialog after one of its buttons was clicked.
+     * @param exitIndex   The index of the exit action, or -1 if the dialog has none.
+     * @param timeout     The deadline for answering the dialog, or null if it never expires.
+     * @throws IllegalArgumentException If the number of identifiers and callbacks differ, or the exit index is out of
+     * bounds.
+     */
+    public DialogCallbackTable(List<Identifier> actionIds, List<DialogCallback> callbacks, PayloadSchema schema,
+                               AfterAction afterAction, int exitIndex, DialogTimeout timeout)
+            throws IllegalArgumentException {
+        if (exitIndex < -1 || exitIndex >= callbacks.size()) {
+            throw new IllegalArgumentException("The exit index must refer to one of the callbacks.");
+        }
+        if (actionIds.size() != callbacks.size()) {
+            throw new IllegalArgumentException("Every action identifier must have exactly one callback.");
+        }
+
+        int token;
+        do {
+            token = NEXT_TOKEN.getAndIncrement();
+        } while (token == 0);
+
+        this.token = token;
+        this.actionIds = actionIds.toArray(Identifier[]::new);
+        this.callbacks = callbacks.toArray(DialogCallback[]::new);
+        this.schema = schema;
+        this.afterAction = afterAction;
+        this.exitIndex = exitIndex;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the data that must be added to the payload of an action button so that its clicks can be routed.
+     *
+     * @param index The index of the action button.
+     * @return A new {@link NbtCompound} containing this table's token and the button's index.
+     */
+    public NbtCompound getRoutingData(int index) {
+        NbtCompound routingData = new NbtCompound();
+        routingData.putInt(TOKEN_KEY, this.token);
+        routingData.putInt(INDEX_KEY, index);
+        return routingData;
+    }
+
+    /**
+     * Resolves the index of the button a click originates from, removing the routing data from the payload.
+     *
+     * @param action  The identifier of the clicked action.
+     * @param payload The payload sent with the click.
+     * @return The index of the clicked button, or -1 if the click does not belong to this table's dialog.
+     */
+    public int resolveIndex(Identifier action, NbtCompound payload) {
+        if (payload.getInt(TOKEN_KEY, 0) != this.token) return -1;
+
+        int index = payload.getInt(INDEX_KEY, -1);
+        if (index < 0 || index >= this.callbacks.length || !this.actionIds[index].equals(action)) return -1;
+
+        payload.remove(TOKEN_KEY);
+        payload.remove(INDEX_KEY);
+        return index;
+    }
+
+    /**
+     * Returns the callback of a button.
+     *
+     * @param index The index of the button, as returned by {@link #resolveIndex(Identifier, NbtCompound)}.
+     * @return The button's callback.
+     */
+    public DialogCallback getCallback(int index) {
+        return this.callbacks[index];
+    }
+
+    /**
+     * Returns whether a button is the dialog's exit action, which the client also runs when the dialog is dismissed.
+     *
+     * @param index The index of the button.
+     * @return True if the button is the exit action, false otherwise.
+     */
+    public boolean isExit(int index) {
+        return index == this.exitIndex;
+    }
+
+    /**
+     * Decodes the payload of a resolved click with the schema of this table's dialog.
+     *
+     * @param payload The payload sent with the click, with the routing data already removed.
+     * @return A typed view of the payload.
+     */
+    public DialogPayload decode(NbtCompound payload) {
+        return this.schema.decode(payload);
+    }
+
+    /**
+     * Returns the compiled schema of this table's dialog.
+     *
+     * @return The dialog's {@link PayloadSchema}.
+     */
+    public PayloadSchema getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * Returns what the client does with this table's dialog after one of its buttons was clicked.
+     *
+     * @return The dialog's {@link AfterAction}.
+     */
+    public AfterAction getAfterAction() {
+        return this.afterAction;
+    }
+
+    /**
+     * Returns the deadline for answering this table's dialog.
+     *
+     * @return The dialog's {@link DialogTimeout}, or null if it never expires.
+     */
+    public DialogTimeout getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Returns the token assigned to this table.
+     *
+     * @return The table's token, which is never 0.
+     */
+    public int getToken() {
+        return this.token;
+    }
+}
@@ -0,0 +1,83 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A queue of resolved dialog clicks waiting to be executed on the server thread.
+ * <p>
+ * Clicks are offered from the network thread and drained once per tick, up to a fixed number of clicks per drain.
+ * Clicks that do not fit into a drain stay queued in order and are executed on the following ticks, so a burst of
+ * clicks is spread out instead of being executed within a single tick.
+ * </p>
+ */
+public class DialogClickQueue {
+    private final Queue<Click> clicks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * A click that has been resolved to a callback, but not yet executed.
+     *
+     * @param player       The player who clicked.
+     * @param session      The session the callback was resolved from.
+     * @param callback     The callback to execute.
+     * @param action       The identifier of the clicked action.
+     * @param payload      The payload sent by the player, decoded with the schema of the session's dialog.
+     * @param receivedTime The value of {@link System#nanoTime()} when the click was received.
+     * @param released     True if the session was already released when the click was received, as happens when the
+     *                     dialog is closed through its exit action.
+     */
+    public record Click(ServerPlayerEntity player, DialogSession session, DialogCallback callback, Identifier action,
+                        DialogPayload payload, long receivedTime, boolean released) {}
+
+    /**
+     * Adds a click to the end of the queue. This method may be called from any thread.
+     *
+     * @param click The click to add.
+     */
+    public void offer(Click click) {
+        this.clicks.offer(click);
+        this.size.incrementAndGet();
+    }
+
+    /**
+     * Passes up to {@code max} clicks from the head of the queue to the given consumer, in the order they were added.
+     *
+     * @param max      The maximum number of clicks to drain.
+     * @param consumer The consumer that executes each click.
+     * @return The number of clicks that were drained.
+     */
+    public int drain(int max, Consumer<Click> consumer) {
+        int drained = 0;
+        Click click;
+        while (drained < max && (click = this.clicks.poll()) != null) {
+            this.size.decrementAndGet();
+            drained++;
+            consumer.accept(click);
+        }
+        return drained;
+    }
+
+    /**
+     * Removes every queued click without executing it.
+     */
+    public void clear() {
+        this.drain(Integer.MAX_VALUE, click -> {});
+    }
+
+    /**
+     * Returns the number of clicks waiting to be executed.
+     *
+     * @return The number of queued clicks.
+     */
+    public int size() {
+        return this.size.get();
+    }
+}
@@ -1,13 +1,24 @@
 package com.harismehuljic.daedalus.data;
 
+import com.harismehuljic.daedalus.Daedalus;
+import com.harismehuljic.daedalus.DaedalusConfig;
+import com.harismehuljic.daedalus.gui.DialogFlow;
+import com.harismehuljic.daedalus.gui.elements.actions.AsyncDialogCallback;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import com.harismehuljic.daedalus.metrics.DialogMetrics;
+import com.harismehuljic.daedalus.metrics.jfr.CallbackCompletedEvent;
+import com.harismehuljic.daedalus.metrics.jfr.ClickDispatchedEvent;
+import com.harismehuljic.daedalus.metrics.jfr.ClickReceivedEvent;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.network.packet.c2s.common.CustomClickActionC2SPacket;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -20,47 +31,408 @@ import java.util.function.Consumer;
  */
 public class DialogManager {
     private static final DialogCallbackRegistry CALLBACK_REGISTRY = new DialogCallbackRegistry();
+    private static final DialogClickQueue CLICK_QUEUE = new DialogClickQueue();
+    private static final EncodedDialogCache ENCODED_DIALOG_CACHE = new EncodedDialogCache();
+    private static final DialogBroadcaster BROADCASTER = new DialogBroadcaster();
+    private static final ClickRateLimiter CLICK_RATE_LIMITER = new ClickRateLimiter();
+    private static final SessionTimeoutWheel TIMEOUT_WHEEL = new SessionTimeoutWheel();
+    private static final AtomicLong INVALID_CLICKS = new AtomicLong();
+    private static final AtomicLong TIMED_OUT_SESSIONS = new AtomicLong();
+    private static final int IDLE_SWEEP_INTERVAL_TICKS = 20;
 
     /**
      * Executes a player action based on the provided packet and player entity.
      * <p>
-     * This method checks if the server is on the correct thread and executes the action
-     * if a callback is registered for the specified action ID and player UUID.
+     * Called from the network thread. The click is matched against the token of the player's current session, rate
+     * limited, and its payload is decoded and validated there, so the server thread only receives clicks the dialog
+     * could have sent. Valid clicks are queued for the next tick, or started right away if their callback is an
+     * {@link AsyncDialogCallback}.
      * </p>
      *
      * @param packet The custom click action packet containing the action ID and payload.
      * @param spe    The server player entity that triggered the action.
+     * @return True if the click belonged to the player's dialog and was routed or rejected, false if it does not
+     * belong to a Daedalus dialog and should be handled by vanilla.
+     *
+     * @see DaedalusConfig#setDefaultClickRateLimit(ClickRateLimit)
+     */
+    public static boolean executePlayerAction(CustomClickActionC2SPacket packet, ServerPlayerEntity spe) {
+        long receivedTime = System.nanoTime();
+        ClickReceivedEvent event = new ClickReceivedEvent();
+        event.begin();
+
+        Optional<NbtCompound> playerPayload = packet.payload().flatMap(NbtElement::asCompound);
+        DialogSession session = CALLBACK_REGISTRY.getSession(spe.getUuid());
+        if (session == null) {
+            commitReceived(event, packet, playerPayload.map(NbtCompound::getSize).orElse(0), "no_session");
+            return false;
+        }
+        if (playerPayload.isEmpty()) {
+            commitReceived(event, packet, 0, "unmatched");
+            return false;
+        }
+
+        int index = session.resolveIndex(packet.id(), playerPayload.get());
+        if (index < 0) {
+            commitReceived(event, packet, playerPayload.get().getSize(), "unmatched");
+            return false;
+        }
+        boolean exit = session.isExit(index);
+        if (!CLICK_RATE_LIMITER.tryAcquire(spe.getUuid(), packet.id())) {
+            abandon(spe, session, exit);
+            commitReceived(event, packet, playerPayload.get().getSize(), "rate_limited");
+            return true;
+        }
+
+        DialogPayload payload = session.decode(playerPayload.get());
+        if (!session.validate(payload)) {
+            INVALID_CLICKS.incrementAndGet();
+            abandon(spe, session, exit);
+            commitReceived(event, packet, playerPayload.get().getSize(), "invalid");
+            return true;
+        }
+
+        if (exit && !CALLBACK_REGISTRY.remove(session)) {
+            commitReceived(event, packet, playerPayload.get().getSize(), "unmatched");
+            return false;
+        }
+        DialogCallback callback = session.getCallback(index);
+
+        DialogClickQueue.Click click = new DialogClickQueue.Click(spe, session, callback, packet.id(), payload,
+                receivedTime, exit);
+        if (callback instanceof AsyncDialogCallback<?>) {
+            commitReceived(event, packet, playerPayload.get().getSize(), exit ? "closed" : "async");
+            dispatch(click);
+        }
+        else {
+            CLICK_QUEUE.offer(click);
+            commitReceived(event, packet, playerPayload.get().getSize(), exit ? "closed" : "queued");
+        }
+        return true;
+    }
+
+    /**
+     * Commits the flight recorder event of a received click, if it is enabled.
+     *
+     * @param event          The event, which was begun when the click was received.
+     * @param packet         The custom click action packet.
+     * @param payloadEntries The number of entries in the click's payload.
+     * @param result         What happened to the click.
+     */
+    private static void commitReceived(ClickReceivedEvent event, CustomClickActionC2SPacket packet, int payloadEntries,
+                                       String result) {
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.action = packet.id().toString();
+        event.payloadEntries = payloadEntries;
+        event.result = result;
+        event.commit();
+    }
+
+    /**
+     * Runs a resolved callback. This happens on the server thread, except for asynchronous callbacks.
+     * <p>
+     * The session is released before the callback runs, and clicks whose session was already released or replaced are
+     * dropped as stale. If the client is waiting for a response that the callback did not give, the dialog is closed.
+     * </p>
+     *
+     * @param click The resolved click to execute.
+     */
+    private static void dispatch(DialogClickQueue.Click click) {
+        DialogSession session = click.session();
+        if (!click.released()) {
+            if (session.keepsOpen()) {
+                if (CALLBACK_REGISTRY.getSession(session.getPlayerId()) != session) return;
+                session.touch(Util.getMeasuringTimeMs());
+            }
+            else if (!CALLBACK_REGISTRY.remove(session)) {
+                if (session.awaitsResponse()) {
+                    closeIfUnanswered(click.player(), session);
+                }
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        DialogMetrics.recordClickLatency(start - click.receivedTime());
+
+        ClickDispatchedEvent dispatchedEvent = new ClickDispatchedEvent();
+        if (dispatchedEvent.shouldCommit()) {
+            dispatchedEvent.action = click.action().toString();
+            dispatchedEvent.queueTime = start - click.receivedTime();
+            dispatchedEvent.commit();
+        }
+
+        CallbackCompletedEvent completedEvent = new CallbackCompletedEvent();
+        completedEvent.begin();
+        boolean failed = false;
+        try {
+            if (session.awaitsResponse() && click.callback() instanceof AsyncDialogCallback<?> async) {
+                async.execute(click.player(), click.payload().getNbt(),
+                        () -> closeIfUnanswered(click.player(), session));
+            }
+            else {
+                click.callback().execute(click.player(), click.payload());
+            }
+        }
+        catch (Exception e) {
+            failed = true;
+            Daedalus.LOGGER.error("Dialog callback for player {} threw an exception.", session.getPlayerId(), e);
+        }
+        DialogMetrics.recordCallbackTime(click.action(), System.nanoTime() - start);
+
+        if (click.released()) {
+            endSession(session);
+        }
+
+        if (!click.released() && session.awaitsResponse() && !(click.callback() instanceof AsyncDialogCallback<?>)) {
+            closeIfUnanswered(click.player(), session);
+        }
+
+        completedEvent.end();
+        if (completedEvent.shouldCommit()) {
+            completedEvent.action = click.action().toString();
+            completedEvent.callbackClass = click.callback().getClass();
+            completedEvent.failed = failed;
+            completedEvent.commit();
+        }
+    }
+
+    /**
+     * Releases the session of a player whose click was dropped, if the dialog was closed by the click or the client
+     * is waiting for a response to it, closing the dialog in the latter case.
+     *
+     * @param spe     The server player entity that clicked.
+     * @param session The player's current session.
+     * @param exit    Whether the click came from the dialog's exit action.
      */
-    public static void executePlayerAction(CustomClickActionC2SPacket packet, ServerPlayerEntity spe) {
-        MinecraftServer server = spe.getServer();
-        UUID playerID = spe.getUuid();
+    private static void abandon(ServerPlayerEntity spe, DialogSession session, boolean exit) {
+        if (!exit && !session.awaitsResponse() || !CALLBACK_REGISTRY.remove(session)) return;
 
-        assert server != null;
-        if (!server.isOnThread()) {
-            server.execute(() -> executePlayerAction(packet, spe));
-            return;
+        if (session.awaitsResponse()) {
+            spe.closeDialog();
         }
+        endSession(session);
+    }
 
-        Consumer<NbtCompound> callback = CALLBACK_REGISTRY.get(packet.id(), playerID);
-        if (callback == null) return;
+    /**
+     * Closes the dialog of a player waiting for a response, unless another dialog has been opened for them since
+     * their session was released.
+     *
+     * @param spe     The server player entity waiting for a response.
+     * @param session The released session the player is waiting on.
+     */
+    private static void closeIfUnanswered(ServerPlayerEntity spe, DialogSession session) {
+        if (!spe.isDisconnected() && CALLBACK_REGISTRY.getSession(session.getPlayerId()) == null) {
+            spe.closeDialog();
+        }
+    }
 
-        Optional<NbtElement> playerPayload = packet.payload();
-        if (playerPayload.isEmpty() || playerPayload.get().asCompound().isEmpty()) return;
-        callback.accept(playerPayload.get().asCompound().get());
+    /**
+     * Registers the callbacks of a dialog that is being opened for a player.
+     * <p>
+     * A player can only have a single dialog open at a time, so any callbacks registered for a previously
+     * opened dialog are replaced.
+     * </p>
+     *
+     * @param recipient The server player entity that will receive the dialog.
+     * @param callbacks The callbacks of the dialog.
+     */
+    public static void registerCallbacks(ServerPlayerEntity recipient, DialogCallbackTable callbacks) {
+        DialogSession session = CALLBACK_REGISTRY.open(recipient.getUuid(), callbacks, Util.getMeasuringTimeMs());
+        scheduleTimeout(session);
+        DialogMetrics.recordOpens(1);
     }
 
     /**
-     * Registers a callback for a specific action and player.
+     * Registers the callbacks of a dialog that is being opened for several players at once.
      * <p>
-     * This method allows you to register a callback that will be executed when the specified
-     * action is triggered by the player.
+     * This is equivalent to calling {@link #registerCallbacks(ServerPlayerEntity, DialogCallbackTable)} for each
+     * player, but only reads the clock once.
      * </p>
      *
-     * @param action    The identifier for the action to register the callback for.
-     * @param recipient The server player entity that will receive the callback.
-     * @param callback  The callback function to execute when the action is triggered.
+     * @param recipients The server player entities that will receive the dialog.
+     * @param callbacks  The callbacks of the dialog.
+     */
+    public static void registerCallbacks(Iterable<? extends ServerPlayerEntity> recipients, DialogCallbackTable callbacks) {
+        long now = Util.getMeasuringTimeMs();
+        int opened = 0;
+        for (ServerPlayerEntity recipient : recipients) {
+            scheduleTimeout(CALLBACK_REGISTRY.open(recipient.getUuid(), callbacks, now));
+            opened++;
+        }
+        DialogMetrics.recordOpens(opened);
+    }
+
+    /**
+     * Schedules a newly opened session to expire, if its dialog has a timeout.
+     *
+     * @param session The session that was opened.
+     */
+    private static void scheduleTimeout(DialogSession session) {
+        DialogTimeout timeout = session.getTimeout();
+        if (timeout != null) {
+            TIMEOUT_WHEEL.schedule(session, timeout.ticks());
+        }
+    }
+
+    /**
+     * Expires a session whose deadline has been reached, unless it has already been answered or replaced.
+     * <p>
+     * The session is released, the player's dialog is closed, and the dialog's timeout callback is executed.
+     * </p>
+     *
+     * @param server  The server that is ticking.
+     * @param session The session whose deadline has been reached.
+     */
+    private static void expire(MinecraftServer server, DialogSession session) {
+        if (!CALLBACK_REGISTRY.remove(session)) return;
+        TIMED_OUT_SESSIONS.incrementAndGet();
+
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(session.getPlayerId());
+        if (player == null) return;
+
+        player.closeDialog();
+        try {
+            session.getTimeout().onTimeout().onTimeout(player);
+        }
+        catch (Exception e) {
+            Daedalus.LOGGER.error("Dialog timeout callback for player {} threw an exception.", session.getPlayerId(), e);
+        }
+        endSession(session);
+    }
+
+    /**
+     * Releases the dialog flow progress tied to a session that was closed, expired or evicted, unless the player has
+     * since been shown the same dialog again.
+     *
+     * @param session The session that has ended.
+     */
+    private static void endSession(DialogSession session) {
+        DialogSession current = CALLBACK_REGISTRY.getSession(session.getPlayerId());
+        if (current == null || current.getCallbacks() != session.getCallbacks()) {
+            DialogFlow.releaseSession(session.getPlayerId(), session.getCallbacks());
+        }
+    }
+
+    /**
+     * Schedules a dialog to be opened for many players, spread over several ticks.
+     *
+     * @param recipients     The server player entities that will receive the dialog.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @param opener         The function which opens the dialog for a single player.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     *
+     * @apiNote This method must be called from the server thread.
+     */
+    public static void scheduleBroadcast(Iterable<? extends ServerPlayerEntity> recipients, int playersPerTick,
+                                         Consumer<ServerPlayerEntity> opener) throws IllegalArgumentException {
+        BROADCASTER.schedule(recipients, playersPerTick, opener);
+    }
+
+    /**
+     * Releases the callbacks, rate limit state and dialog flow progress of a player who has disconnected from the
+     * server.
+     *
+     * @param spe The server player entity that disconnected.
+     */
+    public static void onPlayerDisconnect(ServerPlayerEntity spe) {
+        CALLBACK_REGISTRY.remove(spe.getUuid());
+        CLICK_RATE_LIMITER.remove(spe.getUuid());
+        DialogFlow.releasePlayer(spe.getUuid());
+    }
+
+    /**
+     * Executes the clicks queued since the last tick, expires sessions whose {@link DialogTimeout} has passed,
+     * continues scheduled broadcasts, and performs periodic maintenance, evicting sessions that have exceeded the
+     * configured idle timeout.
+     * <p>
+     * Queued clicks are executed before sessions expire, so a dialog answered just before its deadline still counts as
+     * answered.
+     * </p>
+     *
+     * @param server The server that is ticking.
+     *
+     * @see DaedalusConfig#setMaxClicksPerTick(int)
+     * @see DaedalusConfig#setSessionIdleTimeout(long)
+     */
+    public static void tick(MinecraftServer server) {
+        CLICK_QUEUE.drain(DaedalusConfig.getMaxClicksPerTick(), DialogManager::dispatch);
+        TIMEOUT_WHEEL.advance(session -> expire(server, session));
+        BROADCASTER.tick();
+
+        long timeout = DaedalusConfig.getSessionIdleTimeout();
+        if (timeout == 0 || server.getTicks() % IDLE_SWEEP_INTERVAL_TICKS != 0) return;
+
+        CALLBACK_REGISTRY.evictIdle(Util.getMeasuringTimeMs(), timeout, DialogManager::endSession);
+    }
+
+    /**
+     * Releases every registered callback, cached dialog and dialog flow progress, for example when the server stops.
+     */
+    public static void clear() {
+        DialogFlow.releaseAll();
+        CLICK_QUEUE.clear();
+        TIMEOUT_WHEEL.clear();
+        BROADCASTER.clear();
+        CALLBACK_REGISTRY.clear();
+        CLICK_RATE_LIMITER.clear();
+        ENCODED_DIALOG_CACHE.clear();
+    }
+
+    /**
+     * Returns the cache of encoded show-dialog packets.
+     *
+     * @return The {@link EncodedDialogCache} shared by all players.
+     */
+    public static EncodedDialogCache getEncodedDialogCache() {
+        return ENCODED_DIALOG_CACHE;
+    }
+
+    /**
+     * Returns the number of players that currently have dialog callbacks registered.
+     *
+     * @return The number of open dialog sessions.
+     */
+    public static int getOpenSessionCount() {
+        return CALLBACK_REGISTRY.size();
+    }
+
+    /**
+     * Returns the number of clicks that have been dropped for exceeding the click rate limit.
+     *
+     * @return The total number of rate limited clicks.
+     */
+    public static long getRateLimitedClickCount() {
+        return CLICK_RATE_LIMITER.getDroppedClicks();
+    }
+
+    /**
+     * Returns the number of clicks that have been dropped because their payload did not match the constraints of the
+     * dialog's input elements.
+     *
+     * @return The total number of invalid clicks.
+     */
+    public static long getInvalidClickCount() {
+        return INVALID_CLICKS.get();
+    }
+
+    /**
+     * Returns the number of sessions that have expired because their dialog was not answered before its timeout.
+     *
+     * @return The total number of timed out sessions.
+     */
+    public static long getTimedOutSessionCount() {
+        return TIMED_OUT_SESSIONS.get();
+    }
+
+    /**
+     * Returns the number of clicks waiting to be executed on the server thread.
+     *
+     * @return The number of queued clicks.
      */
-    public static void registerCallback(Identifier action, ServerPlayerEntity recipient, Consumer<NbtCompound> callback) {
-        CALLBACK_REGISTRY.register(action, recipient.getUuid(), callback);
+    public static int getQueuedClickCount() {
+        return CLICK_QUEUE.size();
     }
 }
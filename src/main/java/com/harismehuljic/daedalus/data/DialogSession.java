@@ -0,0 +1,160 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import net.minecraft.dialog.AfterAction;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+
+/**
+ * Holds the callbacks of a single dialog that has been opened for a player.
+ * <p>
+ * A session lives from the moment its dialog is sent until the dialog is answered, replaced by another dialog,
+ * the player disconnects, the session has been idle for longer than the configured timeout, or the dialog's own
+ * {@link DialogTimeout} has passed. A dialog which stays
+ * open after a click, because its after action is {@link AfterAction#NONE}, is not answered by a click, so its session
+ * lives on and every click counts as activity.
+ * </p>
+ */
+public class DialogSession {
+    private final UUID playerId;
+    private final DialogCallbackTable callbacks;
+    private volatile long lastActiveTime;
+
+    /**
+     * Constructs a DialogSession for the given player.
+     *
+     * @param playerId  The UUID of the player the dialog was opened for.
+     * @param callbacks The callbacks of the dialog.
+     * @param now       The current time in milliseconds.
+     */
+    public DialogSession(UUID playerId, DialogCallbackTable callbacks, long now) {
+        this.playerId = playerId;
+        this.callbacks = callbacks;
+        this.lastActiveTime = now;
+    }
+
+    /**
+     * Resolves the index of the button a click in this session originates from.
+     *
+     * @param action  The identifier of the clicked action.
+     * @param payload The payload sent with the click.
+     * @return The index of the clicked button, or -1 if the click does not belong to this session's dialog.
+     *
+     * @see DialogCallbackTable#resolveIndex(Identifier, NbtCompound)
+     */
+    public int resolveIndex(Identifier action, NbtCompound payload) {
+        return this.callbacks.resolveIndex(action, payload);
+    }
+
+    /**
+     * Returns the callback of a button in this session's dialog.
+     *
+     * @param index The index of the button.
+     * @return The button's callback.
+     */
+    public DialogCallback getCallback(int index) {
+        return this.callbacks.getCallback(index);
+    }
+
+    /**
+     * Returns whether a button is the exit action of this session's dialog.
+     *
+     * @param index The index of the button.
+     * @return True if the button is the exit action, false otherwise.
+     */
+    public boolean isExit(int index) {
+        return this.callbacks.isExit(index);
+    }
+
+    /**
+     * Decodes the payload of a click resolved in this session.
+     *
+     * @param payload The payload sent with the click.
+     * @return A typed view of the payload.
+     *
+     * @see DialogCallbackTable#decode(NbtCompound)
+     */
+    public DialogPayload decode(NbtCompound payload) {
+        return this.callbacks.decode(payload);
+    }
+
+    /**
+     * Validates a decoded payload against the schema of this session's dialog.
+     *
+     * @param payload The decoded payload.
+     * @return True if the payload is valid, false otherwise.
+     *
+     * @see com.harismehuljic.daedalus.gui.elements.input.PayloadSchema#validate(DialogPayload)
+     */
+    public boolean validate(DialogPayload payload) {
+        return this.callbacks.getSchema().validate(payload);
+    }
+
+    /**
+     * Returns whether the dialog of this session stays open after a click, so that the session must outlive it.
+     *
+     * @return True if the dialog's after action is {@link AfterAction#NONE}, false otherwise.
+     */
+    public boolean keepsOpen() {
+        return this.callbacks.getAfterAction() == AfterAction.NONE;
+    }
+
+    /**
+     * Returns whether the client waits for the server to send another dialog after a click in this session.
+     *
+     * @return True if the dialog's after action is {@link AfterAction#WAIT_FOR_RESPONSE}, false otherwise.
+     */
+    public boolean awaitsResponse() {
+        return this.callbacks.getAfterAction() == AfterAction.WAIT_FOR_RESPONSE;
+    }
+
+    /**
+     * Returns the deadline for answering this session's dialog.
+     *
+     * @return The dialog's {@link DialogTimeout}, or null if it never expires.
+     */
+    public DialogTimeout getTimeout() {
+        return this.callbacks.getTimeout();
+    }
+
+    /**
+     * Records activity in this session, which restarts its idle timeout.
+     *
+     * @param now The current time in milliseconds.
+     */
+    public void touch(long now) {
+        this.lastActiveTime = now;
+    }
+
+    /**
+     * Returns whether this session has gone without activity for longer than the given timeout.
+     *
+     * @param now       The current time in milliseconds.
+     * @param timeout   The idle timeout in milliseconds.
+     * @return True if the session is idle, false otherwise.
+     */
+    public boolean isIdle(long now, long timeout) {
+        return now - this.lastActiveTime > timeout;
+    }
+
+    /**
+     * Returns the callbacks of this session's dialog.
+     *
+     * @return The {@link DialogCallbackTable} the session was opened with, shared by every session of the same dialog.
+     */
+    public DialogCallbackTable getCallbacks() {
+        return this.callbacks;
+    }
+
+    /**
+     * Returns the UUID of the player this session belongs to.
+     *
+     * @return The player's UUID.
+     */
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+}
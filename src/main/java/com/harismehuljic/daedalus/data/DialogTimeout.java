@@ -0,0 +1,29 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.gui.elements.actions.TimeoutCallback;
+
+/**
+ * A deadline for answering a dialog, after which its session expires.
+ * <p>
+ * The deadline starts when the dialog is opened for a player. If the player has not answered the dialog, closed it,
+ * or been shown another dialog by then, the dialog is closed, its callbacks are released, and the timeout callback is
+ * executed.
+ * </p>
+ *
+ * @param ticks     The number of server ticks the player has to answer the dialog. Must be a positive integer.
+ * @param onTimeout The callback executed when the dialog expires.
+ *
+ * @see SessionTimeoutWheel
+ */
+public record DialogTimeout(int ticks, TimeoutCallback onTimeout) {
+    /**
+     * Constructs a DialogTimeout with the given deadline and callback.
+     *
+     * @throws IllegalArgumentException If the number of ticks is not a positive integer.
+     */
+    public DialogTimeout {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("Timeout ticks must be a positive integer.");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.harismehuljic.daedalus.data;
+
+import com.harismehuljic.daedalus.DaedalusConfig;
+import com.harismehuljic.daedalus.metrics.DialogMetrics;
+import com.harismehuljic.daedalus.metrics.jfr.DialogSendEvent;
+import net.minecraft.dialog.type.Dialog;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.s2c.common.ShowDialogS2CPacket;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.entry.RegistryEntry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of encoded show-dialog packets, so that a dialog sent to many players is only encoded once.
+ * <p>
+ * Dialogs are cached by identity, which means every player a compiled {@link Dialog} is sent to receives the
+ * same bytes. To keep dialogs that are only ever sent once from taking up space, a dialog's bytes are only kept once
+ * it has been sent a second time. Both the set of dialogs that have been seen and the set of encoded dialogs are
+ * bounded, evicting the least recently sent dialog first.
+ * </p>
+ *
+ * @see DaedalusConfig#setEncodedDialogCacheSize(int)
+ */
+public class EncodedDialogCache {
+    private static final int SEEN_CAPACITY_FACTOR = 4;
+
+    private final LinkedHashMap<DialogKey, Boolean> seen = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DialogKey, Boolean> eldest) {
+            return this.size() > DaedalusConfig.getEncodedDialogCacheSize() * SEEN_CAPACITY_FACTOR;
+        }
+    };
+    private final LinkedHashMap<DialogKey, EncodedDialog> encoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DialogKey, EncodedDialog> eldest) {
+            return this.size() > DaedalusConfig.getEncodedDialogCacheSize();
+        }
+    };
+
+    /**
+     * Identifies a dialog by identity rather than by its contents, which would be expensive to hash.
+     *
+     * @param dialog The dialog.
+     */
+    private record DialogKey(Dialog dialog) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DialogKey other && other.dialog == this.dialog;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.dialog);
+        }
+    }
+
+    /**
+     * The encoded bytes of a show-dialog packet.
+     *
+     * @param registries The registry manager the packet was encoded with.
+     * @param bytes      The encoded packet.
+     */
+    private record EncodedDialog(DynamicRegistryManager registries, byte[] bytes) {}
+
+    /**
+     * Wraps the show-dialog packet codec so that encoding goes through this cache.
+     *
+     * @param codec The codec to wrap.
+     * @return A codec which encodes through this cache and decodes through the wrapped codec.
+     */
+    public PacketCodec<RegistryByteBuf, ShowDialogS2CPacket> wrap(PacketCodec<RegistryByteBuf, ShowDialogS2CPacket> codec) {
+        return new PacketCodec<>() {
+            @Override
+            public ShowDialogS2CPacket decode(RegistryByteBuf buf) {
+                return codec.decode(buf);
+            }
+
+            @Override
+            public void encode(RegistryByteBuf buf, ShowDialogS2CPacket packet) {
+                EncodedDialogCache.this.encode(codec, buf, packet);
+            }
+        };
+    }
+
+    /**
+     * Encodes a show-dialog packet, reusing previously encoded bytes where possible. This method is called from the
+     * network threads.
+     *
+     * @param codec  The codec used to encode packets that are not cached yet.
+     * @param buf    The buffer to encode the packet into.
+     * @param packet The packet to encode.
+     */
+    private void encode(PacketCodec<RegistryByteBuf, ShowDialogS2CPacket> codec, RegistryByteBuf buf, ShowDialogS2CPacket packet) {
+        DialogSendEvent event = new DialogSendEvent();
+        event.begin();
+        int start = buf.writerIndex();
+        if (!(packet.dialog() instanceof RegistryEntry.Direct<Dialog>(Dialog dialog))) {
+            codec.encode(buf, packet);
+            recordSend(event, packet, buf.writerIndex() - start, false);
+            return;
+        }
+
+        DialogKey key = new DialogKey(dialog);
+        DynamicRegistryManager registries = buf.getRegistryManager();
+        boolean seenBefore;
+        synchronized (this) {
+            EncodedDialog cached = this.encoded.get(key);
+            if (cached != null && cached.registries() == registries) {
+                buf.writeBytes(cached.bytes());
+                recordSend(event, packet, cached.bytes().length, true);
+                return;
+            }
+            seenBefore = this.seen.put(key, Boolean.TRUE) != null;
+        }
+
+        codec.encode(buf, packet);
+        int size = buf.writerIndex() - start;
+        recordSend(event, packet, size, false);
+        if (!seenBefore) return;
+
+        byte[] bytes = new byte[size];
+        buf.getBytes(start, bytes);
+        synchronized (this) {
+            this.encoded.put(key, new EncodedDialog(registries, bytes));
+        }
+    }
+
+    /**
+     * Records the size of an encoded show-dialog packet in {@link DialogMetrics}, and commits its flight recorder event.
+     *
+     * @param event  The event, which was begun before the packet was encoded.
+     * @param packet The packet that was encoded.
+     * @param size   The size of the encoded packet in bytes.
+     * @param cached Whether previously encoded bytes were reused.
+     */
+    private static void recordSend(DialogSendEvent event, ShowDialogS2CPacket packet, int size, boolean cached) {
+        DialogMetrics.recordEncodedSize(size);
+
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.title = packet.dialog().value().common().title().getString();
+        event.size = size;
+        event.cached = cached;
+        event.commit();
+    }
+
+    /**
+     * Removes every dialog from the cache.
+     */
+    public synchronized void clear() {
+        this.seen.clear();
+        this.encoded.clear();
+    }
+
+    /**
+     * Returns the number of dialogs whose encoded bytes are cached.
+     *
+     * @return The number of encoded dialogs.
+     */
+    public synchronized int size() {
+        return this.encoded.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.harismehuljic.daedalus.data;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel which expires dialog sessions once their {@link DialogTimeout} has passed.
+ * <p>
+ * The wheel has a fixed number of slots, one per tick, and advances by one slot every server tick. A session is
+ * placed into the slot of the tick its deadline falls on, and deadlines further away than one revolution simply
+ * stay in their slot for additional revolutions. Scheduling a session and advancing the wheel therefore take
+ * constant time, no matter how many sessions are pending, since each tick only visits the sessions in its own slot.
+ * </p>
+ * <p>
+ * Sessions that are answered, replaced or closed before their deadline are not removed from the wheel. They are
+ * dropped when their slot comes up, by checking whether they are still the player's current session. Sessions may be
+ * scheduled from any thread, but the wheel is only advanced from the server thread.
+ * </p>
+ */
+public class SessionTimeoutWheel {
+    private static final int WHEEL_SIZE = 1024;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Entry[] slots = new Entry[WHEEL_SIZE];
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private volatile long tick;
+    private int size;
+
+    /**
+     * A scheduled session, linked to the next session in the same slot.
+     */
+    private static final class Entry {
+        private final DialogSession session;
+        private long deadline;
+        private Entry next;
+
+        private Entry(DialogSession session, long deadline) {
+            this.session = session;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Schedules a session to expire after the given number of ticks. This method may be called from any thread.
+     *
+     * @param session The session to expire.
+     * @param ticks   The number of ticks until the session expires.
+     */
+    public void schedule(DialogSession session, int ticks) {
+        this.pending.offer(new Entry(session, this.tick + ticks));
+    }
+
+    /**
+     * Advances the wheel by one tick, passing every session whose deadline has been reached to the given consumer.
+     * Sessions scheduled since the last tick are added to the wheel first.
+     *
+     * @param expire The consumer which expires a session.
+     * @return The number of sessions that reached their deadline.
+     */
+    public int advance(Consumer<DialogSession> expire) {
+        Entry entry;
+        while ((entry = this.pending.poll()) != null) {
+            this.insert(entry);
+        }
+
+        long now = ++this.tick;
+        int slot = (int) (now & MASK);
+        int expired = 0;
+
+        Entry previous = null;
+        Entry current = this.slots[slot];
+        while (current != null) {
+            Entry next = current.next;
+            if (current.deadline <= now) {
+                if (previous == null) {
+                    this.slots[slot] = next;
+                }
+                else {
+                    previous.next = next;
+                }
+                this.size--;
+                expired++;
+                expire.accept(current.session);
+            }
+            else {
+                previous = current;
+            }
+            current = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Adds an entry to the slot of its deadline. Deadlines which have already passed expire on the next tick.
+     *
+     * @param entry The entry to add.
+     */
+    private void insert(Entry entry) {
+        if (entry.deadline <= this.tick) {
+            entry.deadline = this.tick + 1;
+        }
+
+        int slot = (int) (entry.deadline & MASK);
+        entry.next = this.slots[slot];
+        this.slots[slot] = entry;
+        this.size++;
+    }
+
+    /**
+     * Removes every scheduled session from the wheel.
+     */
+    public void clear() {
+        this.pending.clear();
+        Arrays.fill(this.slots, null);
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of sessions in the wheel, including sessions which have already been answered but whose
+     * deadline has not been reached yet. Sessions scheduled since the last tick are not counted.
+     *
+     * @return The number of scheduled sessions.
+     */
+    public int size() {
+        return this.size;
+    }
+}
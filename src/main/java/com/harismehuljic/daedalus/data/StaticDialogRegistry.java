@@ -0,0 +1,46 @@
+package com.harismehuljic.daedalus.data;
+
+import net.fabricmc.fabric.api.event.registry.DynamicRegistryView;
+import net.minecraft.dialog.type.Dialog;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Collects static dialogs which should be added to the dialog dynamic registry when the server loads its registries.
+ * <p>
+ * Dialogs in the registry are synchronised to players once when they join, after which opening one only sends its
+ * identifier instead of the full dialog.
+ * </p>
+ */
+public class StaticDialogRegistry {
+    private static final LinkedHashMap<Identifier, Dialog> DIALOGS = new LinkedHashMap<>();
+
+    /**
+     * Adds a dialog to be registered under the given identifier.
+     *
+     * @param id     The identifier to register the dialog under.
+     * @param dialog The dialog to register.
+     * @throws IllegalStateException If a dialog has already been registered under the given identifier.
+     *
+     * @apiNote Dialogs must be registered before the server loads its registries, which means during mod
+     * initialization.
+     */
+    public static synchronized void register(Identifier id, Dialog dialog) throws IllegalStateException {
+        if (DIALOGS.putIfAbsent(id, dialog) != null) {
+            throw new IllegalStateException(String.format("A dialog has already been registered as %s.", id));
+        }
+    }
+
+    /**
+     * Adds every collected dialog to the dialog registry of a dynamic registry view that is being set up.
+     *
+     * @param registryView The dynamic registry view that is being set up.
+     */
+    public static synchronized void onRegistrySetup(DynamicRegistryView registryView) {
+        registryView.getOptional(RegistryKeys.DIALOG)
+                .ifPresent(registry -> DIALOGS.forEach((id, dialog) -> Registry.register(registry, id, dialog)));
+    }
+}
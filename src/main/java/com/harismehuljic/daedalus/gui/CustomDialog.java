@@ -1,11 +1,15 @@
 package com.harismehuljic.daedalus.gui;
 
 import com.harismehuljic.daedalus.gui.elements.actions.ActionButton;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.actions.TimeoutCallback;
 import com.harismehuljic.daedalus.gui.elements.body.BodyElement;
 import com.harismehuljic.daedalus.gui.elements.body.ItemBody;
 import com.harismehuljic.daedalus.gui.elements.body.TextBody;
 import com.harismehuljic.daedalus.gui.elements.input.*;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.dialog.AfterAction;
 import net.minecraft.server.network.ServerPlayerEntity;
 import org.jetbrains.annotations.NotNull;
 
@@ -29,6 +33,13 @@ public abstract class CustomDialog {
     private boolean closeOnEscape = true;
     private boolean pauseGame = false;
     private int actionButtonColumns = 2;
+    private AfterAction afterAction = AfterAction.CLOSE;
+    private StylableText exitLabel;
+    private DialogCallback onClose;
+    private int timeoutTicks;
+    private TimeoutCallback onTimeout;
+
+    private DialogTemplate template;
 
     /**
      * Constructs a CustomDialog instance.
@@ -56,6 +67,7 @@ public abstract class CustomDialog {
      */
     protected void setDialogTitle(StylableText title) {
         this.dialogTitle = title;
+        this.template = null;
     }
 
     /**
@@ -65,6 +77,7 @@ public abstract class CustomDialog {
      */
     protected void setDialogTitle(String title) {
         this.dialogTitle = new StylableText(title);
+        this.template = null;
     }
 
     /**
@@ -76,6 +89,7 @@ public abstract class CustomDialog {
      */
     protected void setCloseOnEscape(boolean closeOnEscape) {
         this.closeOnEscape = closeOnEscape;
+        this.template = null;
     }
 
     /**
@@ -88,6 +102,19 @@ public abstract class CustomDialog {
      */
     protected void setPauseGame(boolean pauseGame) {
         this.pauseGame = pauseGame;
+        this.template = null;
+    }
+
+    /**
+     * Configures what the client does with the dialog after one of its action buttons was clicked.
+     *
+     * @param afterAction The after action of the dialog.
+     *
+     * @implNote By default, this is {@link AfterAction#CLOSE}. See {@link DialogBuilder#setAfterAction(AfterAction)}.
+     */
+    protected void setAfterAction(AfterAction afterAction) {
+        this.afterAction = afterAction;
+        this.template = null;
     }
 
     /**
@@ -101,6 +128,7 @@ public abstract class CustomDialog {
             throw new IllegalArgumentException("Action button columns must be a positive integer.");
         }
         this.actionButtonColumns = actionButtonColumns;
+        this.template = null;
     }
 
     /**
@@ -113,6 +141,7 @@ public abstract class CustomDialog {
      */
     protected void addBodyElement(BodyElement bodyElement) {
         this.bodyElements.add(bodyElement);
+        this.template = null;
     }
 
     /**
@@ -127,6 +156,7 @@ public abstract class CustomDialog {
      */
     protected void addInputElement(InputElement inputElement) {
         this.inputElements.add(inputElement);
+        this.template = null;
     }
 
     /**
@@ -136,20 +166,59 @@ public abstract class CustomDialog {
      */
     protected void addActionButton(ActionButton actionButton) {
         this.actionButtons.add(actionButton);
+        this.template = null;
     }
 
     /**
-     * Opens the dialog for the specified player.
+     * Adds an exit button to the dialog, whose callback is executed when the player closes or dismisses the dialog.
+     *
+     * @param label   The label of the exit button.
+     * @param onClose The callback executed when the dialog is closed.
+     *
+     * @see DialogBuilder#setOnClose(StylableText, DialogCallback)
+     */
+    protected void setOnClose(StylableText label, DialogCallback onClose) {
+        this.exitLabel = label;
+        this.onClose = onClose;
+        this.template = null;
+    }
+
+    /**
+     * Sets a deadline for answering the dialog, after which it is closed and the timeout callback is executed.
+     *
+     * @param ticks     The number of server ticks the player has to answer the dialog, must be a positive integer.
+     * @param onTimeout The callback executed when the dialog expires.
+     * @throws IllegalArgumentException If the number of ticks is not a positive integer.
+     *
+     * @see DialogBuilder#setTimeout(int, TimeoutCallback)
+     */
+    protected void setTimeout(int ticks, TimeoutCallback onTimeout) throws IllegalArgumentException {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("Timeout ticks must be a positive integer.");
+        }
+        this.timeoutTicks = ticks;
+        this.onTimeout = onTimeout;
+        this.template = null;
+    }
+
+    /**
+     * Compiles this dialog into an immutable {@link DialogTemplate}.
      * <p>
-     * This method constructs the dialog using the defined title, body elements, input elements, and action buttons,
-     * and then opens it for the given player. It will throw an {@link IllegalStateException} if the dialog is not
-     * properly defined (e.g., missing title or action buttons).
+     * The template is built from the defined title, body elements, input elements, and action buttons the first time
+     * this method is called, and cached afterwards, so opening the same dialog repeatedly does not rebuild it. It will
+     * throw an {@link IllegalStateException} if the dialog is not properly defined (e.g., missing title or action
+     * buttons).
      * </p>
      *
-     * @param spe The server player entity for whom the dialog should be opened.
-     * @throws IllegalStateException If the dialog title is not set or if there are no action buttons defined.
+     * @return The compiled {@link DialogTemplate} for this dialog.
+     * @throws IllegalStateException If the dialog title is not set, if there are no action buttons defined, or if the
+     * dialog pauses the game while staying open after a click.
      */
-    public void openDialog(@NotNull ServerPlayerEntity spe) throws IllegalStateException {
+    public DialogTemplate compile() throws IllegalStateException {
+        if (this.template != null) {
+            return this.template;
+        }
+
         String className = this.getClass().getSimpleName();
         if (this.dialogTitle == null) {
             throw new IllegalStateException(String.format("Dialog title must be set in %s" +
@@ -159,17 +228,83 @@ public abstract class CustomDialog {
             throw new IllegalStateException(String.format("There must be at least one action button defined in %s" +
                     ".defineDialog() for the dialog to open.", className));
         }
+        else if (this.pauseGame && this.afterAction == AfterAction.NONE) {
+            throw new IllegalStateException(String.format("%s pauses the game, so its after action must close the " +
+                    "dialog or wait for a response.", className));
+        }
 
         DialogBuilder dialogBuilder = new DialogBuilder()
                 .setTitle(this.dialogTitle)
                 .setCloseOnEscape(this.closeOnEscape)
                 .setPauseGame(this.pauseGame)
+                .setAfterAction(this.afterAction)
                 .setActionButtonColumns(this.actionButtonColumns);
 
+        if (this.onClose != null) {
+            dialogBuilder.setOnClose(this.exitLabel, this.onClose);
+        }
+        if (this.onTimeout != null) {
+            dialogBuilder.setTimeout(this.timeoutTicks, this.onTimeout);
+        }
+
         this.bodyElements.forEach(dialogBuilder::addBodyElement);
         this.inputElements.forEach(dialogBuilder::addInputElement);
         this.actionButtons.forEach(dialogBuilder::addActionButton);
 
-        dialogBuilder.openDialog(spe);
+        this.template = dialogBuilder.compile();
+        return this.template;
+    }
+
+    /**
+     * Opens the dialog for the specified player.
+     * <p>
+     * This method compiles the dialog if it has not been compiled yet, and then opens it for the given player. It will
+     * throw an {@link IllegalStateException} if the dialog is not properly defined (e.g., missing title or action
+     * buttons).
+     * </p>
+     *
+     * @param spe The server player entity for whom the dialog should be opened.
+     * @throws IllegalStateException If the dialog title is not set or if there are no action buttons defined.
+     */
+    public void openDialog(@NotNull ServerPlayerEntity spe) throws IllegalStateException {
+        this.compile().openDialog(spe);
+    }
+
+    /**
+     * Opens the dialog for the specified player, filling in its placeholders with the given values.
+     *
+     * @param spe    The server player entity for whom the dialog should be opened.
+     * @param values The values of the dialog's placeholders.
+     * @throws IllegalStateException If the dialog title is not set or if there are no action buttons defined.
+     *
+     * @see DialogTemplate#openDialog(ServerPlayerEntity, PlaceholderValues)
+     */
+    public void openDialog(@NotNull ServerPlayerEntity spe, @NotNull PlaceholderValues values) throws IllegalStateException {
+        this.compile().openDialog(spe, values);
+    }
+
+    /**
+     * Opens the dialog for every specified player, compiling it only once.
+     *
+     * @param players The server player entities for whom the dialog should be opened.
+     * @throws IllegalStateException If the dialog title is not set or if there are no action buttons defined.
+     */
+    public void openDialog(@NotNull Iterable<? extends ServerPlayerEntity> players) throws IllegalStateException {
+        this.compile().openDialog(players);
+    }
+
+    /**
+     * Opens the dialog for every specified player, compiling it only once and spreading the sends over several ticks.
+     *
+     * @param players        The server player entities for whom the dialog should be opened.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @throws IllegalStateException    If the dialog title is not set or if there are no action buttons defined.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     *
+     * @see DialogTemplate#openDialog(Iterable, int)
+     */
+    public void openDialog(@NotNull Iterable<? extends ServerPlayerEntity> players, int playersPerTick)
+            throws IllegalStateException, IllegalArgumentException {
+        this.compile().openDialog(players, playersPerTick);
     }
 }
@@ -1,10 +1,19 @@
 package com.harismehuljic.daedalus.gui;
 
+import com.harismehuljic.daedalus.Daedalus;
+import com.harismehuljic.daedalus.data.DialogCallbackTable;
 import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.data.DialogTimeout;
 import com.harismehuljic.daedalus.gui.elements.actions.ActionButton;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.actions.TimeoutCallback;
 import com.harismehuljic.daedalus.gui.elements.body.BodyElement;
 import com.harismehuljic.daedalus.gui.elements.input.InputElement;
+import com.harismehuljic.daedalus.gui.elements.input.PayloadSchema;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import com.harismehuljic.daedalus.metrics.DialogMetrics;
+import com.harismehuljic.daedalus.metrics.jfr.DialogBuildEvent;
 import net.minecraft.dialog.AfterAction;
 import net.minecraft.dialog.DialogActionButtonData;
 import net.minecraft.dialog.DialogCommonData;
@@ -13,35 +22,44 @@ import net.minecraft.dialog.type.Dialog;
 import net.minecraft.dialog.type.DialogInput;
 import net.minecraft.dialog.type.MultiActionDialog;
 import net.minecraft.nbt.NbtCompound;
-import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * A builder class for creating and managing custom dialogs in the game.
  * <p>
  * This class allows you to define the dialog's title, body elements, input elements,
  * and action buttons, as well as configure dialog behavior such as closing on escape
- * and pausing the game.
+ * and pausing the game. A builder whose contents do not change between opens can be
+ * compiled once into a {@link DialogTemplate} and shared.
  * </p>
  */
 public class DialogBuilder {
+    private static final Identifier EXIT_ACTION_ID = Identifier.of(Daedalus.MOD_ID, "exit");
+
     private StylableText dialogTitle;
     private boolean closeOnEscape = true;
     private boolean pauseGame = false;
     private int actionButtonColumns = 2;
+    private AfterAction afterAction = AfterAction.CLOSE;
 
     private final ArrayList<DialogBody> bodyElements   = new ArrayList<>();
     private final ArrayList<DialogInput> dialogInputs = new ArrayList<>();
-    private final ArrayList<DialogActionButtonData> actionButtons = new ArrayList<>();
+    private final ArrayList<InputElement> inputElements = new ArrayList<>();
+    private final ArrayList<ActionButton> actionButtons = new ArrayList<>();
+    private ActionButton exitButton;
+    private DialogTimeout timeout;
+
+    private final LinkedHashMap<Integer, BodyElement> placeholderBodies = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, InputElement> placeholderInputs = new LinkedHashMap<>();
 
-    private final HashMap<Identifier, Consumer<NbtCompound>> actions = new HashMap<>();
+    private DialogTemplate compiled;
 
     /**
      * Constructs a DialogBuilder instance.
@@ -63,6 +81,7 @@ public class DialogBuilder {
      */
     public DialogBuilder setTitle(StylableText title) {
         this.dialogTitle = title;
+        this.compiled = null;
         return this;
     }
 
@@ -74,6 +93,7 @@ public class DialogBuilder {
      */
     public DialogBuilder setTitle(String title) {
         this.dialogTitle = new StylableText(title);
+        this.compiled = null;
         return this;
     }
 
@@ -87,6 +107,7 @@ public class DialogBuilder {
      */
     public DialogBuilder setCloseOnEscape(boolean closeOnEscape) {
         this.closeOnEscape = closeOnEscape;
+        this.compiled = null;
         return this;
     }
 
@@ -101,6 +122,29 @@ public class DialogBuilder {
      */
     public DialogBuilder setPauseGame(boolean pauseGame) {
         this.pauseGame = pauseGame;
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * Sets what the client does with the dialog after one of its action buttons was clicked.
+     * <p>
+     * With {@link AfterAction#WAIT_FOR_RESPONSE}, the client shows a waiting screen until the server sends the next
+     * dialog, so a callback can answer a click with an updated dialog, see
+     * {@link com.harismehuljic.daedalus.gui.elements.actions.DialogCallback#respond}, without the screen being closed
+     * and reopened. With {@link AfterAction#NONE}, the dialog stays open and its callbacks stay registered, so it can
+     * be clicked any number of times.
+     * </p>
+     *
+     * @param afterAction The after action of the dialog.
+     * @return The current instance of DialogBuilder for method chaining.
+     *
+     * @implNote By default, this is {@link AfterAction#CLOSE}. If the dialog is waiting for a response and the callback
+     * does not open another dialog, the dialog is closed.
+     */
+    public DialogBuilder setAfterAction(AfterAction afterAction) {
+        this.afterAction = afterAction;
+        this.compiled = null;
         return this;
     }
 
@@ -115,6 +159,7 @@ public class DialogBuilder {
      */
     public DialogBuilder setActionButtonColumns(int actionButtonColumns) {
         this.actionButtonColumns = actionButtonColumns;
+        this.compiled = null;
         return this;
     }
 
@@ -125,7 +170,11 @@ public class DialogBuilder {
      * @return The current instance of DialogBuilder for method chaining.
      */
     public DialogBuilder addBodyElement(BodyElement bodyElement) {
+        if (bodyElement.hasPlaceholders()) {
+            this.placeholderBodies.put(this.bodyElements.size(), bodyElement);
+        }
         this.bodyElements.add(bodyElement.getBody());
+        this.compiled = null;
         return this;
     }
 
@@ -136,7 +185,12 @@ public class DialogBuilder {
      * @return The current instance of DialogBuilder for method chaining.
      */
     public DialogBuilder addInputElement(InputElement inputElement) {
+        if (inputElement.hasPlaceholders()) {
+            this.placeholderInputs.put(this.dialogInputs.size(), inputElement);
+        }
         this.dialogInputs.add(inputElement.getInput());
+        this.inputElements.add(inputElement);
+        this.compiled = null;
         return this;
     }
 
@@ -147,38 +201,148 @@ public class DialogBuilder {
      * @return The current instance of DialogBuilder for method chaining.
      */
     public DialogBuilder addActionButton(ActionButton actionButton) {
-        this.actionButtons.add(actionButton.getButton());
-        this.actions.put(actionButton.getButtonID(), actionButton.getCallback());
+        this.actionButtons.add(actionButton);
+        this.compiled = null;
         return this;
     }
 
     /**
-     * Builds the dialog with the current settings and elements.
+     * Adds an exit button to the dialog, whose callback is executed when the player closes the dialog.
+     * <p>
+     * The exit button is shown below the action buttons, and the client also runs it when the dialog is dismissed
+     * with the escape key. As soon as the server receives it, the dialog's callbacks are released, so the dialog's
+     * session does not linger until it times out or the player disconnects.
+     * </p>
      *
-     * @param spe The server player entity for whom the dialog is being built.
-     * @return A new instance of {@link Dialog} configured with the specified settings and elements.
+     * @param label   The label of the exit button.
+     * @param onClose The callback executed when the dialog is closed, on the server thread unless it is an
+     *                {@link com.harismehuljic.daedalus.gui.elements.actions.AsyncDialogCallback}.
+     * @return The current instance of DialogBuilder for method chaining.
      */
-    public Dialog build(ServerPlayerEntity spe) {
-        for (Map.Entry<Identifier, Consumer<NbtCompound>> entry : this.actions.entrySet()) {
-            DialogManager.registerCallback(entry.getKey(), spe, entry.getValue());
+    public DialogBuilder setOnClose(StylableText label, DialogCallback onClose) {
+        this.exitButton = new ActionButton(EXIT_ACTION_ID, label, onClose);
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * Sets a deadline for answering the dialog, after which it is closed and the timeout callback is executed.
+     *
+     * @param ticks     The number of server ticks the player has to answer the dialog, counted from when it is opened.
+     * @param onTimeout The callback executed on the server thread when the dialog expires.
+     * @return The current instance of DialogBuilder for method chaining.
+     * @throws IllegalArgumentException If the number of ticks is not a positive integer.
+     *
+     * @implNote By default, dialogs never expire, although their sessions are still evicted after the configured idle
+     * timeout. Expired sessions are released right away, see {@link DialogTimeout}.
+     */
+    public DialogBuilder setTimeout(int ticks, TimeoutCallback onTimeout) throws IllegalArgumentException {
+        this.timeout = new DialogTimeout(ticks, onTimeout);
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * Compiles the dialog with the current settings and elements into an immutable {@link DialogTemplate}.
+     * <p>
+     * The template is cached, so compiling a builder again without changing it returns the same template.
+     * </p>
+     *
+     * @return A {@link DialogTemplate} which can be opened for any number of players.
+     * @throws IllegalStateException If the dialog title is not set, if there are no action buttons defined, or if the
+     * dialog pauses the game while staying open after a click.
+     */
+    public DialogTemplate compile() throws IllegalStateException {
+        if (this.compiled != null) {
+            return this.compiled;
+        }
+        if (this.dialogTitle == null) {
+            throw new IllegalStateException("Dialog title must be set before building the dialog.");
+        }
+        else if (this.actionButtons.isEmpty()) {
+            throw new IllegalStateException("There must be at least one action button defined for the dialog to be built.");
         }
+        else if (this.pauseGame && this.afterAction == AfterAction.NONE) {
+            throw new IllegalStateException("A dialog which pauses the game must close or wait for a response after a click.");
+        }
+
+        DialogBuildEvent event = new DialogBuildEvent();
+        event.begin();
+        long start = System.nanoTime();
 
+        StylableText title = this.dialogTitle.freeze();
         DialogCommonData data = new DialogCommonData(
-                this.dialogTitle.getText(),
+                title.getSharedText(),
                 Optional.empty(),
                 this.closeOnEscape,
                 this.pauseGame,
-                AfterAction.CLOSE,
-                this.bodyElements,
-                this.dialogInputs
+                this.afterAction,
+                List.copyOf(this.bodyElements),
+                List.copyOf(this.dialogInputs)
+        );
+
+        List<ActionButton> routedButtons = this.exitButton == null ? this.actionButtons
+                : Stream.concat(this.actionButtons.stream(), Stream.of(this.exitButton)).toList();
+        int exitIndex = this.exitButton == null ? -1 : this.actionButtons.size();
+
+        DialogCallbackTable callbacks = new DialogCallbackTable(
+                routedButtons.stream().map(ActionButton::getButtonID).toList(),
+                routedButtons.stream().map(ActionButton::getCallback).toList(),
+                new PayloadSchema(
+                        this.inputElements,
+                        this.actionButtons.stream()
+                                .mapToInt(button -> button.getExtraData().map(NbtCompound::getSize).orElse(0))
+                                .max()
+                                .orElse(0)
+                ),
+                this.afterAction,
+                exitIndex,
+                this.timeout
         );
 
-        return new MultiActionDialog(
+        ArrayList<DialogActionButtonData> buttons = new ArrayList<>(this.actionButtons.size());
+        for (int i = 0; i < this.actionButtons.size(); i++) {
+            buttons.add(this.actionButtons.get(i).getButton(callbacks.getRoutingData(i)));
+        }
+
+        MultiActionDialog dialog = new MultiActionDialog(
                 data,
-                this.actionButtons,
-                Optional.empty(),
+                List.copyOf(buttons),
+                exitIndex < 0 ? Optional.empty()
+                        : Optional.of(this.exitButton.getButton(callbacks.getRoutingData(exitIndex))),
                 this.actionButtonColumns
         );
+
+        DialogSlots slots = new DialogSlots(
+                title.hasPlaceholders() ? title : null,
+                this.placeholderBodies,
+                this.placeholderInputs
+        );
+
+        this.compiled = new DialogTemplate(dialog, callbacks, slots.isEmpty() ? DialogSlots.NONE : slots);
+        DialogMetrics.recordBuildTime(System.nanoTime() - start);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.title = title.getSharedText().getString();
+            event.bodies = this.bodyElements.size();
+            event.inputs = this.dialogInputs.size();
+            event.buttons = this.actionButtons.size();
+            event.commit();
+        }
+        return this.compiled;
+    }
+
+    /**
+     * Builds the dialog with the current settings and elements.
+     *
+     * @param spe The server player entity for whom the dialog is being built.
+     * @return An instance of {@link Dialog} configured with the specified settings and elements.
+     */
+    public Dialog build(ServerPlayerEntity spe) {
+        DialogTemplate template = this.compile();
+        DialogManager.registerCallbacks(spe, template.getCallbacks());
+        return template.getDialog();
     }
 
     /**
@@ -187,7 +351,40 @@ public class DialogBuilder {
      * @param spe The server player entity for whom the dialog should be opened.
      */
     public void openDialog(ServerPlayerEntity spe) {
-        Dialog dialog = this.build(spe);
-        spe.openDialog(new RegistryEntry.Direct<>(dialog));
+        this.compile().openDialog(spe);
+    }
+
+    /**
+     * Opens the dialog for the specified player, filling in its placeholders with the given values.
+     *
+     * @param spe    The server player entity for whom the dialog should be opened.
+     * @param values The values of the dialog's placeholders.
+     *
+     * @see DialogTemplate#openDialog(ServerPlayerEntity, PlaceholderValues)
+     */
+    public void openDialog(ServerPlayerEntity spe, PlaceholderValues values) {
+        this.compile().openDialog(spe, values);
+    }
+
+    /**
+     * Opens the dialog for every specified player, building it only once.
+     *
+     * @param players The server player entities for whom the dialog should be opened.
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players) {
+        this.compile().openDialog(players);
+    }
+
+    /**
+     * Opens the dialog for every specified player, building it only once and spreading the sends over several ticks.
+     *
+     * @param players        The server player entities for whom the dialog should be opened.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     *
+     * @see DialogTemplate#openDialog(Iterable, int)
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players, int playersPerTick) throws IllegalArgumentException {
+        this.compile().openDialog(players, playersPerTick);
     }
 }
@@ -0,0 +1,318 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.data.DialogCallbackTable;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A multi-step dialog, such as an onboarding wizard or an application form, whose steps are compiled once and whose
+ * per-player progress is a small state object.
+ * <p>
+ * Each step is a {@link DialogBuilder} that is compiled into a {@link DialogTemplate} when it is added to the flow.
+ * Action buttons move between steps through callbacks created with {@link #action(StepAction)}, which receive the
+ * player's current state and return a {@link Transition} to the next step. Moving to a step only opens its
+ * precompiled template, so a 5-step flow compiles 5 dialogs no matter how many players go through it. Steps can show
+ * the player's state through placeholders, whose values are derived from the state when the step is opened.
+ * </p>
+ * <p>
+ * A player's state is kept from {@link #start(ServerPlayerEntity)} until the flow is finished or cancelled, the
+ * dialog of the player's step is closed through its exit action, times out or is evicted for being idle, or the
+ * player disconnects.
+ * </p>
+ *
+ * @param <S> The type of the per-player state, typically a record which is replaced at each step.
+ */
+public class DialogFlow<S> {
+    private static final Set<DialogFlow<?>> FLOWS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final Supplier<S> initialState;
+    private final LinkedHashMap<String, Step<S>> steps = new LinkedHashMap<>();
+    private final ConcurrentHashMap<UUID, Progress<S>> progress = new ConcurrentHashMap<>();
+    private CompletionCallback<? super S> onComplete = (player, state) -> {};
+
+    /**
+     * A compiled step of the flow.
+     *
+     * @param template     The compiled dialog of the step.
+     * @param placeholders The function deriving the step's placeholder values from the player's state, or null if the
+     *                     step has no placeholders.
+     * @param <S>          The type of the per-player state.
+     */
+    private record Step<S>(DialogTemplate template, Function<? super S, PlaceholderValues> placeholders) {}
+
+    /**
+     * The progress of a single player through the flow.
+     *
+     * @param step  The identifier of the step the player is on.
+     * @param state The player's state.
+     * @param <S>   The type of the per-player state.
+     */
+    private record Progress<S>(String step, S state) {}
+
+    /**
+     * The outcome of a click within a flow.
+     *
+     * @param step      The identifier of the step to move to, or null if the flow ends.
+     * @param state     The player's new state.
+     * @param completed True if the flow ends by being finished, false if it is cancelled or continues.
+     * @param <S>       The type of the per-player state.
+     */
+    public record Transition<S>(String step, S state, boolean completed) {
+        /**
+         * Moves the player to another step, or back to the same step.
+         *
+         * @param step  The identifier of the step.
+         * @param state The player's new state.
+         * @param <S>   The type of the per-player state.
+         * @return A transition to the step.
+         */
+        public static <S> Transition<S> to(String step, S state) {
+            return new Transition<>(step, state, false);
+        }
+
+        /**
+         * Finishes the flow, executing its completion callback with the player's final state.
+         *
+         * @param state The player's final state.
+         * @param <S>   The type of the per-player state.
+         * @return A transition finishing the flow.
+         */
+        public static <S> Transition<S> finish(S state) {
+            return new Transition<>(null, state, true);
+        }
+
+        /**
+         * Cancels the flow, discarding the player's state.
+         *
+         * @param <S> The type of the per-player state.
+         * @return A transition cancelling the flow.
+         */
+        public static <S> Transition<S> cancel() {
+            return new Transition<>(null, null, false);
+        }
+    }
+
+    /**
+     * A callback executed when a player clicks an action button of a step.
+     *
+     * @param <S> The type of the per-player state.
+     */
+    @FunctionalInterface
+    public interface StepAction<S> {
+        /**
+         * Executes this callback.
+         *
+         * @param player  The player who clicked the button.
+         * @param state   The player's current state.
+         * @param payload The decoded values of the step's input elements.
+         * @return The transition to perform.
+         */
+        Transition<S> execute(ServerPlayerEntity player, S state, DialogPayload payload);
+    }
+
+    /**
+     * A callback executed when a player finishes a flow.
+     *
+     * @param <S> The type of the per-player state.
+     */
+    @FunctionalInterface
+    public interface CompletionCallback<S> {
+        /**
+         * Executes this callback.
+         *
+         * @param player The player who finished the flow.
+         * @param state  The player's final state.
+         */
+        void execute(ServerPlayerEntity player, S state);
+    }
+
+    /**
+     * Constructs a DialogFlow.
+     *
+     * @param initialState The supplier of the state a player starts the flow with.
+     *
+     * @apiNote Steps are added through {@link #step(String, DialogBuilder)}, and the first step added is the step the
+     * flow starts at.
+     */
+    public DialogFlow(Supplier<S> initialState) {
+        this.initialState = initialState;
+        FLOWS.add(this);
+    }
+
+    /**
+     * Adds a step to the flow, compiling its dialog.
+     *
+     * @param id      The identifier of the step, which transitions refer to.
+     * @param builder The dialog of the step, whose action buttons should use callbacks created with
+     *                {@link #action(StepAction)}.
+     * @return The current instance of DialogFlow for method chaining.
+     * @throws IllegalArgumentException If a step with the same identifier has already been added.
+     * @throws IllegalStateException    If the dialog has no title or no action buttons.
+     */
+    public DialogFlow<S> step(String id, DialogBuilder builder) throws IllegalArgumentException, IllegalStateException {
+        return this.step(id, builder, null);
+    }
+
+    /**
+     * Adds a step with placeholders to the flow, compiling its dialog.
+     *
+     * @param id           The identifier of the step, which transitions refer to.
+     * @param builder      The dialog of the step, whose action buttons should use callbacks created with
+     *                     {@link #action(StepAction)}.
+     * @param placeholders The function deriving the values of the step's placeholders from the player's state.
+     * @return The current instance of DialogFlow for method chaining.
+     * @throws IllegalArgumentException If a step with the same identifier has already been added.
+     * @throws IllegalStateException    If the dialog has no title or no action buttons.
+     */
+    public DialogFlow<S> step(String id, DialogBuilder builder, Function<? super S, PlaceholderValues> placeholders)
+            throws IllegalArgumentException, IllegalStateException {
+        if (this.steps.containsKey(id)) {
+            throw new IllegalArgumentException(String.format("A step with the identifier %s has already been added.", id));
+        }
+
+        this.steps.put(id, new Step<>(builder.compile(), placeholders));
+        return this;
+    }
+
+    /**
+     * Sets the callback executed when a player finishes the flow.
+     *
+     * @param onComplete The completion callback.
+     * @return The current instance of DialogFlow for method chaining.
+     */
+    public DialogFlow<S> onComplete(CompletionCallback<? super S> onComplete) {
+        this.onComplete = onComplete;
+        return this;
+    }
+
+    /**
+     * Creates the callback of an action button within a step.
+     *
+     * @param action The step action, which decides where the player goes next.
+     * @return A {@link DialogCallback} to pass to an {@link com.harismehuljic.daedalus.gui.elements.actions.ActionButton}.
+     *
+     * @apiNote The callback only has an effect for players who are in this flow, and is executed on the server thread.
+     */
+    public DialogCallback action(StepAction<S> action) {
+        return DialogCallback.typed((player, payload) -> {
+            Progress<S> current = this.progress.get(player.getUuid());
+            if (current == null) return;
+
+            this.transition(player, action.execute(player, current.state(), payload));
+        });
+    }
+
+    /**
+     * Starts the flow for a player at its first step, discarding any progress the player had.
+     *
+     * @param spe The server player entity starting the flow.
+     * @throws IllegalStateException If the flow has no steps.
+     */
+    public void start(ServerPlayerEntity spe) throws IllegalStateException {
+        if (this.steps.isEmpty()) {
+            throw new IllegalStateException("A dialog flow must have at least one step to be started.");
+        }
+        this.transition(spe, Transition.to(this.steps.keySet().iterator().next(), this.initialState.get()));
+    }
+
+    /**
+     * Returns the current state of a player in this flow.
+     *
+     * @param spe The server player entity.
+     * @return The player's state, or null if the player is not in this flow.
+     */
+    public S getState(ServerPlayerEntity spe) {
+        Progress<S> current = this.progress.get(spe.getUuid());
+        return current != null ? current.state() : null;
+    }
+
+    /**
+     * Cancels the flow for a player, discarding their state. The dialog the player has open is not closed.
+     *
+     * @param spe The server player entity.
+     */
+    public void cancel(ServerPlayerEntity spe) {
+        this.progress.remove(spe.getUuid());
+    }
+
+    /**
+     * Returns the number of players currently in this flow.
+     *
+     * @return The number of players with progress in this flow.
+     */
+    public int size() {
+        return this.progress.size();
+    }
+
+    /**
+     * Performs a transition for a player, opening the next step's template or ending the flow.
+     *
+     * @param spe        The server player entity.
+     * @param transition The transition to perform.
+     * @throws IllegalArgumentException If the transition refers to a step that does not exist.
+     */
+    private void transition(ServerPlayerEntity spe, Transition<S> transition) throws IllegalArgumentException {
+        if (transition.step() == null) {
+            this.progress.remove(spe.getUuid());
+            if (transition.completed()) {
+                this.onComplete.execute(spe, transition.state());
+            }
+            return;
+        }
+
+        Step<S> step = this.steps.get(transition.step());
+        if (step == null) {
+            this.progress.remove(spe.getUuid());
+            throw new IllegalArgumentException(String.format("Dialog flow has no step with the identifier %s.", transition.step()));
+        }
+
+        this.progress.put(spe.getUuid(), new Progress<>(transition.step(), transition.state()));
+        if (step.placeholders() == null) {
+            step.template().openDialog(spe);
+        }
+        else {
+            step.template().openDialog(spe, step.placeholders().apply(transition.state()));
+        }
+    }
+
+    /**
+     * Discards the progress of a player in every flow, for example when they disconnect.
+     *
+     * @param playerId The UUID of the player.
+     */
+    public static void releasePlayer(UUID playerId) {
+        synchronized (FLOWS) {
+            FLOWS.forEach(flow -> flow.progress.remove(playerId));
+        }
+    }
+
+    /**
+     * Discards the progress of a player in every flow whose current step is the dialog with the given callbacks, for
+     * example when that dialog was closed without moving to another step.
+     *
+     * @param playerId  The UUID of the player.
+     * @param callbacks The callbacks of the dialog whose session ended.
+     */
+    public static void releaseSession(UUID playerId, DialogCallbackTable callbacks) {
+        synchronized (FLOWS) {
+            FLOWS.forEach(flow -> flow.progress.computeIfPresent(playerId, (id, current) ->
+                    flow.steps.get(current.step()).template().getCallbacks() == callbacks ? null : current));
+        }
+    }
+
+    /**
+     * Discards the progress of every player in every flow, for example when the server stops.
+     */
+    public static void releaseAll() {
+        synchronized (FLOWS) {
+            FLOWS.forEach(flow -> flow.progress.clear());
+        }
+    }
+}
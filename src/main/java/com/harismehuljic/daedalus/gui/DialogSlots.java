@@ -0,0 +1,99 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.gui.elements.body.BodyElement;
+import com.harismehuljic.daedalus.gui.elements.input.InputElement;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.dialog.DialogCommonData;
+import net.minecraft.dialog.body.DialogBody;
+import net.minecraft.dialog.type.DialogInput;
+import net.minecraft.dialog.type.MultiActionDialog;
+import net.minecraft.text.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a compiled dialog which contain placeholders, and where they are located within the dialog.
+ * <p>
+ * When a dialog is opened with placeholder values, only these parts are rebuilt. Every other body, input and
+ * button is shared with the compiled dialog.
+ * </p>
+ */
+final class DialogSlots {
+    static final DialogSlots NONE = new DialogSlots(null, Map.of(), Map.of());
+
+    private final StylableText title;
+    private final List<BodySlot> bodies;
+    private final List<InputSlot> inputs;
+
+    private record BodySlot(int index, BodyElement element) {}
+
+    private record InputSlot(int index, InputElement element) {}
+
+    /**
+     * Constructs DialogSlots from the parts of a dialog which contain placeholders.
+     *
+     * @param title  The title of the dialog if it contains placeholders, otherwise null.
+     * @param bodies The body elements containing placeholders, keyed by their index within the dialog's bodies.
+     * @param inputs The input elements containing placeholders, keyed by their index within the dialog's inputs.
+     */
+    DialogSlots(StylableText title, Map<Integer, BodyElement> bodies, Map<Integer, InputElement> inputs) {
+        this.title = title;
+        this.bodies = bodies.entrySet().stream().map(entry -> new BodySlot(entry.getKey(), entry.getValue())).toList();
+        this.inputs = inputs.entrySet().stream().map(entry -> new InputSlot(entry.getKey(), entry.getValue())).toList();
+    }
+
+    /**
+     * Returns whether the dialog contains no placeholders at all.
+     *
+     * @return True if there is nothing to fill in, false otherwise.
+     */
+    boolean isEmpty() {
+        return this.title == null && this.bodies.isEmpty() && this.inputs.isEmpty();
+    }
+
+    /**
+     * Creates a copy of a compiled dialog with its placeholders filled in.
+     *
+     * @param dialog The compiled dialog.
+     * @param values The values of the placeholders.
+     * @return A dialog which shares every part without placeholders with the compiled dialog.
+     */
+    MultiActionDialog apply(MultiActionDialog dialog, PlaceholderValues values) {
+        DialogCommonData common = dialog.common();
+
+        List<DialogBody> body = common.body();
+        if (!this.bodies.isEmpty()) {
+            ArrayList<DialogBody> resolved = new ArrayList<>(body);
+            for (BodySlot slot : this.bodies) {
+                resolved.set(slot.index(), slot.element().getBody(values));
+            }
+            body = resolved;
+        }
+
+        List<DialogInput> inputs = common.inputs();
+        if (!this.inputs.isEmpty()) {
+            ArrayList<DialogInput> resolved = new ArrayList<>(inputs);
+            for (InputSlot slot : this.inputs) {
+                resolved.set(slot.index(), slot.element().getInput(values));
+            }
+            inputs = resolved;
+        }
+
+        Text title = this.title != null ? this.title.resolve(values) : common.title();
+
+        DialogCommonData data = new DialogCommonData(
+                title,
+                common.externalTitle(),
+                common.canCloseWithEscape(),
+                common.pause(),
+                common.afterAction(),
+                body,
+                inputs
+        );
+
+        return new MultiActionDialog(data, dialog.actions(), dialog.exitAction(), dialog.columns());
+    }
+}
@@ -0,0 +1,254 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.data.DialogCallbackTable;
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.data.StaticDialogRegistry;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
+import com.harismehuljic.daedalus.metrics.jfr.DialogOpenEvent;
+import net.minecraft.dialog.type.Dialog;
+import net.minecraft.dialog.type.MultiActionDialog;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, compiled dialog which can be opened for any number of players.
+ * <p>
+ * A template is created once through {@link DialogBuilder#compile()} or {@link CustomDialog#compile()}. All of its
+ * bodies, inputs and buttons are built at that point and shared by every player it is opened for, so opening a
+ * template only registers the player's callbacks and sends the dialog.
+ * </p>
+ * <p>
+ * Templates whose content is the same for every player can also be added to the dialog registry through
+ * {@link #register(Identifier)}, in which case only the dialog's identifier is sent when it is opened.
+ * </p>
+ * <p>
+ * If the dialog contains {@link com.harismehuljic.daedalus.gui.elements.text.Placeholder}s, it can be opened with
+ * {@link #openDialog(ServerPlayerEntity, PlaceholderValues)}, which only rebuilds the parts containing placeholders.
+ * </p>
+ *
+ * @apiNote Since the same callbacks are registered for every player, callbacks of a template that is shared between
+ * players should use the player passed to {@link DialogCallback#execute} rather than capturing a player.
+ */
+public class DialogTemplate {
+    private final MultiActionDialog dialog;
+    private final RegistryEntry<Dialog> entry;
+    private final DialogCallbackTable callbacks;
+    private final DialogSlots slots;
+    private final RegistryKey<Dialog> registryKey;
+
+    /**
+     * Constructs a DialogTemplate from a compiled dialog and its callbacks.
+     *
+     * @param dialog    The compiled dialog.
+     * @param callbacks The callbacks of the dialog's action buttons.
+     * @param slots     The parts of the dialog which contain placeholders.
+     */
+    DialogTemplate(MultiActionDialog dialog, DialogCallbackTable callbacks, DialogSlots slots) {
+        this(dialog, callbacks, slots, null);
+    }
+
+    /**
+     * Constructs a DialogTemplate from a compiled dialog and its callbacks, which is sent by reference to the given
+     * registry key when it is present in the server's dialog registry.
+     *
+     * @param dialog      The compiled dialog.
+     * @param callbacks   The callbacks of the dialog's action buttons.
+     * @param slots       The parts of the dialog which contain placeholders.
+     * @param registryKey The key the dialog is registered under, or null if it is always sent inline.
+     */
+    private DialogTemplate(MultiActionDialog dialog, DialogCallbackTable callbacks, DialogSlots slots,
+                           RegistryKey<Dialog> registryKey) {
+        this.dialog = dialog;
+        this.entry = RegistryEntry.of(dialog);
+        this.callbacks = callbacks;
+        this.slots = slots;
+        this.registryKey = registryKey;
+    }
+
+    /**
+     * Registers this template's dialog in the dialog registry under the given identifier.
+     *
+     * @param id The identifier to register the dialog under, of the form "modid:dialog_name".
+     * @return A template with the same dialog and callbacks, which is sent by reference when opened.
+     * @throws IllegalStateException If a dialog has already been registered under the given identifier.
+     *
+     * @apiNote This must be called during mod initialization, before the server loads its registries. If the dialog
+     * is missing from the registry when the returned template is opened, it is sent inline instead. Opening the
+     * returned template with placeholder values still sends it inline, as the registered dialog is the same for every
+     * player.
+     */
+    public DialogTemplate register(Identifier id) throws IllegalStateException {
+        StaticDialogRegistry.register(id, this.dialog);
+        return new DialogTemplate(this.dialog, this.callbacks, this.slots, RegistryKey.of(RegistryKeys.DIALOG, id));
+    }
+
+    /**
+     * Returns the compiled dialog.
+     *
+     * @return The {@link Dialog} shared by every player this template is opened for.
+     */
+    public Dialog getDialog() {
+        return this.dialog;
+    }
+
+    /**
+     * Returns the compiled dialog with its placeholders filled in.
+     *
+     * @param values The values of the dialog's placeholders.
+     * @return A {@link Dialog} which shares every part without placeholders with the compiled dialog, or the compiled
+     * dialog itself if it has no placeholders.
+     */
+    public Dialog getDialog(PlaceholderValues values) {
+        return this.slots.isEmpty() ? this.dialog : this.slots.apply(this.dialog, values);
+    }
+
+    /**
+     * Returns whether the dialog contains placeholders which can be filled in when it is opened.
+     *
+     * @return True if the dialog contains placeholders, false otherwise.
+     */
+    public boolean hasPlaceholders() {
+        return !this.slots.isEmpty();
+    }
+
+    /**
+     * Returns the callbacks of the dialog's action buttons.
+     *
+     * @return The {@link DialogCallbackTable} registered for every player this template is opened for.
+     */
+    public DialogCallbackTable getCallbacks() {
+        return this.callbacks;
+    }
+
+    /**
+     * Opens the dialog for the specified player, replacing any dialog the player currently has open.
+     *
+     * @param spe The server player entity for whom the dialog should be opened.
+     */
+    public void openDialog(ServerPlayerEntity spe) {
+        DialogOpenEvent event = new DialogOpenEvent();
+        event.begin();
+        DialogManager.registerCallbacks(spe, this.callbacks);
+        spe.openDialog(this.getEntry(spe.getServer()));
+        this.commitOpen(event, 1, false);
+    }
+
+    /**
+     * Opens the dialog for the specified player, filling in its placeholders with the given values.
+     * <p>
+     * Only the title, bodies and inputs containing placeholders are rebuilt for the player. Everything else is shared
+     * with the compiled dialog. Dialogs with placeholders are always sent inline, even if they have been registered.
+     * </p>
+     *
+     * @param spe    The server player entity for whom the dialog should be opened.
+     * @param values The values of the dialog's placeholders.
+     */
+    public void openDialog(ServerPlayerEntity spe, PlaceholderValues values) {
+        if (this.slots.isEmpty()) {
+            this.openDialog(spe);
+            return;
+        }
+
+        DialogOpenEvent event = new DialogOpenEvent();
+        event.begin();
+        DialogManager.registerCallbacks(spe, this.callbacks);
+        spe.openDialog(RegistryEntry.of(this.slots.apply(this.dialog, values)));
+        this.commitOpen(event, 1, true);
+    }
+
+    /**
+     * Opens the dialog for every specified player, replacing any dialog they currently have open.
+     * <p>
+     * The players are copied in a single pass, so the dialog is only resolved once and the callbacks are registered
+     * for all players in bulk. If the dialog is sent inline, it is also only encoded once, see
+     * {@link com.harismehuljic.daedalus.data.EncodedDialogCache}.
+     * </p>
+     *
+     * @param players The server player entities for whom the dialog should be opened.
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players) {
+        List<ServerPlayerEntity> recipients = new ArrayList<>();
+        players.forEach(recipients::add);
+        if (recipients.isEmpty()) return;
+
+        DialogOpenEvent event = new DialogOpenEvent();
+        event.begin();
+        RegistryEntry<Dialog> dialogEntry = this.getEntry(recipients.getFirst().getServer());
+        DialogManager.registerCallbacks(recipients, this.callbacks);
+
+        for (ServerPlayerEntity spe : recipients) {
+            spe.openDialog(dialogEntry);
+        }
+        this.commitOpen(event, recipients.size(), false);
+    }
+
+    /**
+     * Commits the flight recorder event of an open, if it is enabled.
+     *
+     * @param event        The event, which was begun before the dialog was opened.
+     * @param players      The number of players the dialog was opened for.
+     * @param placeholders Whether placeholders were filled in.
+     */
+    private void commitOpen(DialogOpenEvent event, int players, boolean placeholders) {
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.title = this.dialog.common().title().getString();
+        event.players = players;
+        event.placeholders = placeholders;
+        event.commit();
+    }
+
+    /**
+     * Opens the dialog for every player on the server that matches the given filter.
+     *
+     * @param server The server whose players should receive the dialog.
+     * @param filter The filter that decides which players receive the dialog.
+     */
+    public void openDialog(MinecraftServer server, Predicate<ServerPlayerEntity> filter) {
+        this.openDialog(server.getPlayerManager().getPlayerList().stream().filter(filter).toList());
+    }
+
+    /**
+     * Opens the dialog for every specified player, spread over several ticks.
+     * <p>
+     * Starting with the next tick, the dialog is opened for up to {@code playersPerTick} players per tick until every
+     * player has received it. Players who disconnect before their turn are skipped.
+     * </p>
+     *
+     * @param players        The server player entities for whom the dialog should be opened.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     *
+     * @apiNote This method must be called from the server thread.
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players, int playersPerTick) throws IllegalArgumentException {
+        DialogManager.scheduleBroadcast(players, playersPerTick, this::openDialog);
+    }
+
+    /**
+     * Returns the registry entry to send for this template's dialog.
+     *
+     * @param server The server the dialog is opened on.
+     * @return A reference entry if the dialog is registered on the server, otherwise a direct entry.
+     */
+    private RegistryEntry<Dialog> getEntry(MinecraftServer server) {
+        if (this.registryKey == null || server == null) {
+            return this.entry;
+        }
+
+        return server.getRegistryManager().getOrThrow(RegistryKeys.DIALOG)
+                .getOptional(this.registryKey)
+                .<RegistryEntry<Dialog>>map(reference -> reference)
+                .orElse(this.entry);
+    }
+}
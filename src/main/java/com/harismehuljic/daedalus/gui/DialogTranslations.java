@@ -0,0 +1,163 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import com.harismehuljic.daedalus.gui.elements.text.TextMarkup;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The translated text of one or more {@link LocalizedDialogTemplate}s, grouped by locale.
+ * <p>
+ * Each entry maps a translation key to a string of markup, see {@link TextMarkup}, so translations can be loaded from
+ * config with their styling and placeholders included. Locales use the same codes as the client's language setting,
+ * such as "en_us" or "de_de". A key missing from a locale falls back to the fallback locale.
+ * </p>
+ */
+public class DialogTranslations {
+    private final String fallbackLocale;
+    private final ConcurrentHashMap<String, Map<String, String>> locales = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs DialogTranslations with the given fallback locale.
+     *
+     * @param fallbackLocale The locale used for clients whose language has no translations, and for keys missing from
+     *                       a locale, for example "en_us".
+     */
+    public DialogTranslations(String fallbackLocale) {
+        this.fallbackLocale = normalize(fallbackLocale);
+    }
+
+    /**
+     * Adds a single translation.
+     *
+     * @param locale The locale of the translation.
+     * @param key    The translation key.
+     * @param markup The translated text, as markup.
+     * @return The current instance of DialogTranslations for method chaining.
+     *
+     * @apiNote Dialogs which have already been compiled for the locale are not updated, see
+     * {@link LocalizedDialogTemplate#invalidate()}.
+     */
+    public DialogTranslations add(String locale, String key, String markup) {
+        this.locales.computeIfAbsent(normalize(locale), l -> new ConcurrentHashMap<>()).put(key, markup);
+        return this;
+    }
+
+    /**
+     * Adds every translation of a locale, for example as loaded from a language file.
+     *
+     * @param locale  The locale of the translations.
+     * @param entries The translated text, as markup, keyed by translation key.
+     * @return The current instance of DialogTranslations for method chaining.
+     *
+     * @apiNote Dialogs which have already been compiled for the locale are not updated, see
+     * {@link LocalizedDialogTemplate#invalidate()}.
+     */
+    public DialogTranslations add(String locale, Map<String, String> entries) {
+        this.locales.computeIfAbsent(normalize(locale), l -> new ConcurrentHashMap<>()).putAll(entries);
+        return this;
+    }
+
+    /**
+     * Returns the locale a client with the given language setting is shown.
+     *
+     * @param language The client's language setting.
+     * @return The language itself if it has translations, otherwise the fallback locale.
+     */
+    public String resolveLocale(String language) {
+        String locale = normalize(language);
+        return this.locales.containsKey(locale) ? locale : this.fallbackLocale;
+    }
+
+    /**
+     * Returns the translated text of a key.
+     *
+     * @param locale The locale to translate into.
+     * @param key    The translation key.
+     * @return The parsed, frozen text of the translation.
+     * @throws IllegalArgumentException If neither the locale nor the fallback locale contain the key, or the
+     * translation is not valid markup.
+     */
+    public StylableText get(String locale, String key) throws IllegalArgumentException {
+        String markup = this.locales.getOrDefault(normalize(locale), Map.of()).get(key);
+        if (markup == null) {
+            markup = this.locales.getOrDefault(this.fallbackLocale, Map.of()).get(key);
+        }
+        if (markup == null) {
+            throw new IllegalArgumentException(String.format("Missing translation for key %s in locale %s.", key, locale));
+        }
+        return TextMarkup.parse(markup);
+    }
+
+    /**
+     * Returns the locales which have translations.
+     *
+     * @return A snapshot of the locales.
+     */
+    public Set<String> getLocales() {
+        return Set.copyOf(this.locales.keySet());
+    }
+
+    /**
+     * Returns the fallback locale.
+     *
+     * @return The locale used when a client's language has no translations.
+     */
+    public String getFallbackLocale() {
+        return this.fallbackLocale;
+    }
+
+    /**
+     * Returns a view of these translations for a single locale, which is passed to the factory of a
+     * {@link LocalizedDialogTemplate}.
+     *
+     * @param locale The locale to translate into.
+     * @return A translator for the locale.
+     */
+    public Translator forLocale(String locale) {
+        return new Translator(this, normalize(locale));
+    }
+
+    /**
+     * Normalizes a locale code, so that "en_US" and "en_us" refer to the same locale.
+     *
+     * @param locale The locale code.
+     * @return The lowercase locale code.
+     */
+    private static String normalize(String locale) {
+        return locale.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The translations of a single locale.
+     *
+     * @param translations The translations to look keys up in.
+     * @param locale       The locale to translate into.
+     */
+    public record Translator(DialogTranslations translations, String locale) {
+        /**
+         * Returns the translated text of a key.
+         *
+         * @param key The translation key.
+         * @return The parsed, frozen text of the translation.
+         * @throws IllegalArgumentException If the key has no translation, or the translation is not valid markup.
+         */
+        public StylableText text(String key) throws IllegalArgumentException {
+            return this.translations.get(this.locale, key);
+        }
+
+        /**
+         * Returns the translated text of a key as a plain string, for elements that do not accept styled text.
+         *
+         * @param key The translation key.
+         * @return The text of the translation without its styling.
+         * @throws IllegalArgumentException If the key has no translation, or the translation is not valid markup.
+         */
+        public String string(String key) throws IllegalArgumentException {
+            return this.text(key).getSharedText().getString();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A dialog which is compiled once per locale and opened in each player's client language.
+ * <p>
+ * The dialog is described by a factory which builds it from a {@link DialogTranslations.Translator}. The first time
+ * the dialog is opened for a locale, the factory is called and the result is compiled into a {@link DialogTemplate},
+ * which is kept and shared by every later open in that locale. Opening the dialog therefore only looks up the
+ * player's language, and never rebuilds the dialog.
+ * </p>
+ * <p>
+ * Clients whose language has no translations are shown the fallback locale, so the number of compiled variants is
+ * bounded by the number of locales in the translations.
+ * </p>
+ *
+ * @apiNote The factory may be called once for each locale, so the callbacks it creates should not capture any
+ * per-player state, see {@link DialogTemplate}.
+ */
+public class LocalizedDialogTemplate {
+    private final DialogTranslations translations;
+    private final Function<DialogTranslations.Translator, DialogBuilder> factory;
+    private final ConcurrentHashMap<String, DialogTemplate> variants = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a LocalizedDialogTemplate.
+     *
+     * @param translations The translations of the dialog's text.
+     * @param factory      The function which builds the dialog for a locale, using the given translator for its text.
+     */
+    public LocalizedDialogTemplate(DialogTranslations translations,
+                                   Function<DialogTranslations.Translator, DialogBuilder> factory) {
+        this.translations = translations;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the compiled variant of the dialog for a locale, compiling it if this is the first time it is needed.
+     *
+     * @param locale The locale, such as "en_us". Locales without translations use the fallback locale.
+     * @return The {@link DialogTemplate} of the locale.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     */
+    public DialogTemplate getTemplate(String locale) throws IllegalStateException, IllegalArgumentException {
+        String resolved = this.translations.resolveLocale(locale);
+        DialogTemplate template = this.variants.get(resolved);
+        if (template != null) {
+            return template;
+        }
+        return this.variants.computeIfAbsent(resolved,
+                l -> this.factory.apply(this.translations.forLocale(l)).compile());
+    }
+
+    /**
+     * Returns the compiled variant of the dialog for a player's client language.
+     *
+     * @param spe The server player entity.
+     * @return The {@link DialogTemplate} of the player's locale.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     */
+    public DialogTemplate getTemplate(ServerPlayerEntity spe) throws IllegalStateException, IllegalArgumentException {
+        return this.getTemplate(spe.getClientOptions().language());
+    }
+
+    /**
+     * Compiles the variants of every locale in the translations up front, so that no player waits for a compile.
+     *
+     * @return The current instance of LocalizedDialogTemplate for method chaining.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     */
+    public LocalizedDialogTemplate precompile() throws IllegalStateException, IllegalArgumentException {
+        this.getTemplate(this.translations.getFallbackLocale());
+        this.translations.getLocales().forEach(this::getTemplate);
+        return this;
+    }
+
+    /**
+     * Discards every compiled variant, for example after the translations were reloaded. Each variant is compiled
+     * again the next time it is opened.
+     */
+    public void invalidate() {
+        this.variants.clear();
+    }
+
+    /**
+     * Opens the dialog for the specified player in their client language.
+     *
+     * @param spe The server player entity for whom the dialog should be opened.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     */
+    public void openDialog(ServerPlayerEntity spe) throws IllegalStateException, IllegalArgumentException {
+        this.getTemplate(spe).openDialog(spe);
+    }
+
+    /**
+     * Opens the dialog for the specified player in their client language, filling in its placeholders with the given
+     * values.
+     *
+     * @param spe    The server player entity for whom the dialog should be opened.
+     * @param values The values of the dialog's placeholders.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     *
+     * @see DialogTemplate#openDialog(ServerPlayerEntity, PlaceholderValues)
+     */
+    public void openDialog(ServerPlayerEntity spe, PlaceholderValues values)
+            throws IllegalStateException, IllegalArgumentException {
+        this.getTemplate(spe).openDialog(spe, values);
+    }
+
+    /**
+     * Opens the dialog for every specified player in their client language.
+     * <p>
+     * Players are grouped by locale in a single pass, and the variant of each locale is opened for its players in
+     * bulk, see {@link DialogTemplate#openDialog(Iterable)}.
+     * </p>
+     *
+     * @param players The server player entities for whom the dialog should be opened.
+     * @throws IllegalStateException    If the dialog built by the factory has no title or no action buttons.
+     * @throws IllegalArgumentException If the factory uses a translation key that does not exist.
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players) throws IllegalStateException, IllegalArgumentException {
+        HashMap<DialogTemplate, List<ServerPlayerEntity>> groups = new HashMap<>();
+        for (ServerPlayerEntity spe : players) {
+            groups.computeIfAbsent(this.getTemplate(spe), template -> new ArrayList<>()).add(spe);
+        }
+        groups.forEach(DialogTemplate::openDialog);
+    }
+
+    /**
+     * Opens the dialog for every specified player in their client language, spreading the sends over several ticks.
+     *
+     * @param players        The server player entities for whom the dialog should be opened.
+     * @param playersPerTick The maximum number of players to open the dialog for per tick.
+     * @throws IllegalArgumentException If the number of players per tick is not a positive integer.
+     *
+     * @apiNote This method must be called from the server thread.
+     */
+    public void openDialog(Iterable<? extends ServerPlayerEntity> players, int playersPerTick) throws IllegalArgumentException {
+        DialogManager.scheduleBroadcast(players, playersPerTick, this::openDialog);
+    }
+}
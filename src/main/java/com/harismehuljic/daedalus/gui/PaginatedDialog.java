@@ -0,0 +1,298 @@
+package com.harismehuljic.daedalus.gui;
+
+import com.harismehuljic.daedalus.gui.elements.actions.ActionButton;
+import com.harismehuljic.daedalus.gui.elements.actions.AsyncDialogCallback;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.dialog.AfterAction;
+import net.minecraft.dialog.Dialogs;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A dialog which lists a large number of entries as pages of action buttons, fetching each page from a supplier only
+ * when it is shown.
+ * <p>
+ * Each page contains up to {@code pageSize} entries, followed by buttons to go to the previous and next page. Clicking
+ * an entry executes the entry callback, and clicking a navigation button opens the adjacent page. Only the entries of
+ * the pages being shown are ever fetched or built, so the size of the dialog sent to the player, and the memory it
+ * takes up on the server, depend on the page size rather than on the number of entries.
+ * </p>
+ * <p>
+ * Compiled pages are kept in a small cache, so players browsing the same pages share their templates. If the entries
+ * change, {@link #invalidate()} discards the cached pages.
+ * </p>
+ * <p>
+ * Pages wait for a response after a click, see {@link AfterAction#WAIT_FOR_RESPONSE}, so turning a page replaces the
+ * screen in place. The adjacent page is fetched off the server thread, so a slow supplier, such as a database query,
+ * does not stall the tick. An entry callback which does not open another dialog closes the dialog.
+ * </p>
+ *
+ * @param <T> The type of the entries.
+ */
+public class PaginatedDialog<T> {
+    private final Identifier actionId;
+    private final StylableText title;
+    private final int pageSize;
+    private final PageSupplier<T> supplier;
+    private final Function<? super T, StylableText> labeler;
+    private final EntryCallback<? super T> callback;
+
+    private StylableText previousLabel = new StylableText("<");
+    private StylableText nextLabel = new StylableText(">");
+    private int columns = 1;
+    private int pageCacheSize = 8;
+
+    private final LinkedHashMap<Integer, DialogTemplate> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, DialogTemplate> eldest) {
+            return this.size() > PaginatedDialog.this.pageCacheSize;
+        }
+    };
+
+    /**
+     * Supplies a range of the entries of a {@link PaginatedDialog}.
+     *
+     * @param <T> The type of the entries.
+     */
+    @FunctionalInterface
+    public interface PageSupplier<T> {
+        /**
+         * Fetches a range of entries.
+         *
+         * @param offset The index of the first entry to fetch.
+         * @param limit  The maximum number of entries to fetch.
+         * @return The entries in the range, which is shorter than {@code limit}, or empty, once the end is reached.
+         *
+         * @apiNote When a player turns the page, this is called off the server thread, so it may block but must not
+         * access the world. The first page is fetched on the thread opening the dialog.
+         */
+        List<T> fetch(int offset, int limit);
+
+        /**
+         * Creates a supplier which pages through a list.
+         *
+         * @param entries The entries.
+         * @param <T>     The type of the entries.
+         * @return A supplier returning views of the given list.
+         */
+        static <T> PageSupplier<T> of(List<T> entries) {
+            return (offset, limit) -> offset >= entries.size() ? List.of()
+                    : entries.subList(offset, Math.min(entries.size(), offset + limit));
+        }
+    }
+
+    /**
+     * A callback that is executed when a player clicks an entry of a {@link PaginatedDialog}.
+     *
+     * @param <T> The type of the entries.
+     */
+    @FunctionalInterface
+    public interface EntryCallback<T> {
+        /**
+         * Executes this callback.
+         *
+         * @param player The player who clicked the entry.
+         * @param entry  The entry that was clicked.
+         */
+        void execute(ServerPlayerEntity player, T entry);
+    }
+
+    /**
+     * Constructs a PaginatedDialog.
+     *
+     * @param actionId The identifier of the dialog's action buttons, of the form "modid:action_name".
+     * @param title    The title of the dialog, to which the page number is added.
+     * @param pageSize The maximum number of entries shown on a single page.
+     * @param supplier The supplier of the entries.
+     * @param labeler  The function which creates the label of an entry's button.
+     * @param callback The callback executed when an entry is clicked.
+     * @throws IllegalArgumentException If the page size is not a positive integer.
+     */
+    public PaginatedDialog(Identifier actionId, StylableText title, int pageSize, PageSupplier<T> supplier,
+                           Function<? super T, StylableText> labeler, EntryCallback<? super T> callback)
+            throws IllegalArgumentException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be a positive integer.");
+        }
+
+        this.actionId = actionId;
+        this.title = title.freeze();
+        this.pageSize = pageSize;
+        this.supplier = supplier;
+        this.labeler = labeler;
+        this.callback = callback;
+    }
+
+    /**
+     * Sets the labels of the buttons leading to the previous and next page.
+     *
+     * @param previousLabel The label of the previous page button.
+     * @param nextLabel     The label of the next page button.
+     * @return The current instance of PaginatedDialog for method chaining.
+     *
+     * @implNote By default, these are "&lt;" and "&gt;".
+     */
+    public PaginatedDialog<T> setNavigationLabels(StylableText previousLabel, StylableText nextLabel) {
+        this.previousLabel = previousLabel;
+        this.nextLabel = nextLabel;
+        this.invalidate();
+        return this;
+    }
+
+    /**
+     * Sets the number of columns the entries are arranged in.
+     *
+     * @param columns The number of columns, must be a positive integer.
+     * @return The current instance of PaginatedDialog for method chaining.
+     * @throws IllegalArgumentException If the provided value is not a positive integer.
+     *
+     * @implNote By default, this is 1.
+     */
+    public PaginatedDialog<T> setColumns(int columns) throws IllegalArgumentException {
+        if (columns <= 0) {
+            throw new IllegalArgumentException("Columns must be a positive integer.");
+        }
+        this.columns = columns;
+        this.invalidate();
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of compiled pages kept for reuse.
+     *
+     * @param pageCacheSize The maximum number of cached pages. A value of 0 fetches and compiles every page each time
+     *                      it is opened.
+     * @return The current instance of PaginatedDialog for method chaining.
+     * @throws IllegalArgumentException If the size is negative.
+     *
+     * @implNote By default, this is 8. The least recently opened page is evicted first.
+     */
+    public PaginatedDialog<T> setPageCacheSize(int pageCacheSize) throws IllegalArgumentException {
+        if (pageCacheSize < 0) {
+            throw new IllegalArgumentException("Page cache size must not be negative.");
+        }
+        this.pageCacheSize = pageCacheSize;
+        this.invalidate();
+        return this;
+    }
+
+    /**
+     * Discards every cached page, for example after the entries have changed. Each page is fetched and compiled again
+     * the next time it is opened.
+     */
+    public void invalidate() {
+        synchronized (this.pages) {
+            this.pages.clear();
+        }
+    }
+
+    /**
+     * Opens the first page of the dialog for the specified player.
+     *
+     * @param spe The server player entity for whom the dialog should be opened.
+     * @throws IllegalStateException If there are no entries at all.
+     */
+    public void openDialog(ServerPlayerEntity spe) throws IllegalStateException {
+        this.openPage(spe, 0);
+    }
+
+    /**
+     * Opens a page of the dialog for the specified player.
+     *
+     * @param spe  The server player entity for whom the dialog should be opened.
+     * @param page The index of the page, starting at 0.
+     * @throws IllegalArgumentException If the page index is negative.
+     * @throws IllegalStateException    If there are no entries at all.
+     *
+     * @apiNote If the page is past the last entry, an empty page with a button leading back is shown.
+     */
+    public void openPage(ServerPlayerEntity spe, int page) throws IllegalArgumentException, IllegalStateException {
+        this.getPage(page).openDialog(spe);
+    }
+
+    /**
+     * Returns the compiled template of a page, fetching and compiling it if it is not cached.
+     *
+     * @param page The index of the page, starting at 0.
+     * @return The {@link DialogTemplate} of the page.
+     * @throws IllegalArgumentException If the page index is negative.
+     * @throws IllegalStateException    If there are no entries at all.
+     */
+    public DialogTemplate getPage(int page) throws IllegalArgumentException, IllegalStateException {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be negative.");
+        }
+
+        synchronized (this.pages) {
+            DialogTemplate template = this.pages.get(page);
+            if (template != null) {
+                return template;
+            }
+        }
+
+        DialogTemplate template = this.compilePage(page);
+        synchronized (this.pages) {
+            this.pages.put(page, template);
+        }
+        return template;
+    }
+
+    /**
+     * Fetches the entries of a page and compiles them into a dialog.
+     * <p>
+     * One entry more than fits on the page is fetched, to find out whether there is a next page without having to
+     * know the total number of entries.
+     * </p>
+     *
+     * @param page The index of the page.
+     * @return The compiled page.
+     * @throws IllegalStateException If there are no entries at all.
+     */
+    private DialogTemplate compilePage(int page) throws IllegalStateException {
+        List<T> entries = this.supplier.fetch(page * this.pageSize, this.pageSize + 1);
+        if (entries.isEmpty() && page == 0) {
+            throw new IllegalStateException("A paginated dialog must have at least one entry to be opened.");
+        }
+        boolean hasNext = entries.size() > this.pageSize;
+
+        DialogBuilder builder = new DialogBuilder()
+                .setTitle(new StylableText().append(this.title).append(" (" + (page + 1) + ")"))
+                .setActionButtonColumns(this.columns)
+                .setAfterAction(AfterAction.WAIT_FOR_RESPONSE);
+
+        int width = Dialogs.BUTTON_WIDTH / this.columns;
+        for (T entry : entries.subList(0, Math.min(entries.size(), this.pageSize))) {
+            builder.addActionButton(new ActionButton(this.actionId, width, this.labeler.apply(entry),
+                    (player, payload) -> this.callback.execute(player, entry), Optional.empty()));
+        }
+
+        if (page > 0) {
+            builder.addActionButton(new ActionButton(this.actionId, width, this.previousLabel,
+                    this.navigateTo(page - 1), Optional.empty()));
+        }
+        if (hasNext) {
+            builder.addActionButton(new ActionButton(this.actionId, width, this.nextLabel,
+                    this.navigateTo(page + 1), Optional.empty()));
+        }
+        return builder.compile();
+    }
+
+    /**
+     * Creates the callback of a navigation button, which fetches and compiles the page off the server thread and
+     * opens it once it is ready.
+     *
+     * @param page The index of the page to navigate to.
+     * @return The callback of the navigation button.
+     */
+    private AsyncDialogCallback<DialogTemplate> navigateTo(int page) {
+        return new AsyncDialogCallback<>(payload -> CompletableFuture.completedFuture(this.getPage(page)),
+                (player, template) -> template.openDialog(player));
+    }
+}
@@ -18,14 +18,15 @@ import java.util.function.Consumer;
  *
  * <p>
  * Action buttons are used to trigger specific actions when clicked, triggering a {@link Consumer} callback function.
- * which takes in an {@link NbtCompound} as a parameter.
+ * which takes in an {@link NbtCompound} as a parameter. Callbacks which also need the player, or which should run
+ * off the server thread, can be given as a {@link DialogCallback} or {@link AsyncDialogCallback} instead.
  * </p>
  */
 public class ActionButton {
     private final Identifier buttonID;
     private final int width;
     private final StylableText label;
-    private final Consumer<NbtCompound> callback;
+    private final DialogCallback callback;
     private final Optional<NbtCompound> extraData;
 
     /**
@@ -46,6 +47,25 @@ public class ActionButton {
      * @see Identifier
      */
     public ActionButton(Identifier buttonID, int width, StylableText label, Consumer<NbtCompound> callback, Optional<NbtCompound> extraData) {
+        this(buttonID, width, label, DialogCallback.of(callback), extraData);
+    }
+
+    /**
+     * Constructs an ActionButton with the specified parameters and a callback that also receives the player.
+     *
+     * @param buttonID  The unique identifier for the button.
+     * @param width     The width of the button.
+     * @param label     The label text for the button.
+     * @param callback  The callback to be executed when the button is clicked.
+     * @param extraData Optional extra data to be passed to the callback.
+     *
+     * @apiNote The {@code buttonID} {@link Identifier} should be of the form "modid:button_name", where "modid" is your mod's
+     * ID and button_name is a custom name for this action button.
+     *
+     * @see DialogCallback
+     * @see AsyncDialogCallback
+     */
+    public ActionButton(Identifier buttonID, int width, StylableText label, DialogCallback callback, Optional<NbtCompound> extraData) {
         this.buttonID = buttonID;
         this.width = width;
         this.label = label;
@@ -69,6 +89,22 @@ public class ActionButton {
         this(buttonID, Dialogs.BUTTON_WIDTH, label, callback, Optional.empty());
     }
 
+    /**
+     * Constructs an ActionButton with a callback that also receives the player, using a default width.
+     *
+     * @param buttonID  The unique identifier for the button.
+     * @param label     The label text for the button.
+     * @param callback  The callback to be executed when the button is clicked.
+     *
+     * @implNote The default width is 310, as defined in {@link Dialogs#BUTTON_WIDTH}.
+     *
+     * @apiNote The {@code buttonID} {@link Identifier} should be of the form "modid:button_name", where "modid" is your mod's
+     * ID and button_name is a custom name for this action button.
+     */
+    public ActionButton(Identifier buttonID, StylableText label, DialogCallback callback) {
+        this(buttonID, Dialogs.BUTTON_WIDTH, label, callback, Optional.empty());
+    }
+
     /**
      * Returns the action associated with this button.
      *
@@ -85,20 +121,45 @@ public class ActionButton {
      */
     public DialogActionButtonData getButton() {
         return new DialogActionButtonData(
-            new DialogButtonData(this.label.getText(), this.width),
+            new DialogButtonData(this.label.getSharedText(), this.width),
             Optional.of(this.getAction())
         );
     }
 
+    /**
+     * Returns the data associated with this button, with additional data merged into the payload it sends.
+     *
+     * @param additions The data to add to the button's payload, on top of its extra data.
+     * @return A {@link DialogActionButtonData} containing the button's label and width.
+     */
+    public DialogActionButtonData getButton(NbtCompound additions) {
+        NbtCompound payload = this.extraData.map(NbtCompound::copy).orElseGet(NbtCompound::new);
+        payload.copyFrom(additions);
+
+        return new DialogActionButtonData(
+            new DialogButtonData(this.label.getSharedText(), this.width),
+            Optional.of(new DynamicCustomDialogAction(this.buttonID, Optional.of(payload)))
+        );
+    }
+
     /**
      * Returns the callback function that will be executed when the button is clicked.
      *
-     * @return A {@link Consumer} that takes an {@link NbtCompound} as input.
+     * @return A {@link DialogCallback} that takes the player and an {@link NbtCompound} as input.
      */
-    public Consumer<NbtCompound> getCallback() {
+    public DialogCallback getCallback() {
         return this.callback;
     }
 
+    /**
+     * Returns the extra data this button adds to its payload.
+     *
+     * @return An {@link Optional} containing the extra data, or empty if the button has none.
+     */
+    public Optional<NbtCompound> getExtraData() {
+        return this.extraData;
+    }
+
     /**
      * Returns the unique identifier for this button.
      *
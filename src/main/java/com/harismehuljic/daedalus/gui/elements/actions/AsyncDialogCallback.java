@@ -0,0 +1,111 @@
+package com.harismehuljic.daedalus.gui.elements.actions;
+
+import com.harismehuljic.daedalus.Daedalus;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A {@link DialogCallback} that performs slow work, such as database writes or web requests, without blocking the
+ * server thread.
+ * <p>
+ * The task is started as soon as the click arrives, on a virtual thread. Once the {@link CompletableFuture} returned by
+ * the task completes, its result is handed back to the server thread, where it is safe to modify the world or the
+ * player.
+ * </p>
+ * <p>
+ * If the dialog waits for a response, see {@link net.minecraft.dialog.AfterAction#WAIT_FOR_RESPONSE}, the completion
+ * handler should open the next dialog. Otherwise, the dialog is closed once the handler has run or the task failed.
+ * </p>
+ *
+ * @param <T> The type of result produced by the task.
+ */
+public class AsyncDialogCallback<T> implements DialogCallback {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Daedalus Callback ", 0).factory()
+    );
+
+    private final Function<NbtCompound, CompletableFuture<T>> task;
+    private final BiConsumer<ServerPlayerEntity, T> onComplete;
+
+    /**
+     * Constructs an AsyncDialogCallback with the specified task and completion handler.
+     *
+     * @param task       The task to run off the server thread, which receives the dialog's payload.
+     * @param onComplete The handler which receives the task's result on the server thread.
+     *
+     * @apiNote The {@code task} must not access the world or the player, as it does not run on the server thread.
+     * Anything that does should be done in {@code onComplete} instead. If the player disconnects before the task
+     * completes, {@code onComplete} is not called.
+     */
+    public AsyncDialogCallback(Function<NbtCompound, CompletableFuture<T>> task, BiConsumer<ServerPlayerEntity, T> onComplete) {
+        this.task = task;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Constructs an AsyncDialogCallback with the specified task and no completion handler.
+     *
+     * @param task The task to run off the server thread, which receives the dialog's payload.
+     *
+     * @apiNote The {@code task} must not access the world or the player, as it does not run on the server thread.
+     */
+    public AsyncDialogCallback(Function<NbtCompound, CompletableFuture<T>> task) {
+        this(task, (player, result) -> {});
+    }
+
+    @Override
+    public void execute(ServerPlayerEntity player, NbtCompound payload) {
+        this.execute(player, payload, () -> {});
+    }
+
+    /**
+     * Starts the task, and runs a follow-up on the server thread once it has been handled.
+     *
+     * @param player     The player who clicked the button.
+     * @param payload    The values of the dialog's input elements.
+     * @param onFinished The follow-up, which runs after the completion handler, or after the task failed.
+     *
+     * @apiNote This is used by Daedalus to close dialogs waiting for a response that the completion handler did not
+     * give.
+     */
+    public void execute(ServerPlayerEntity player, NbtCompound payload, Runnable onFinished) {
+        MinecraftServer server = player.getServer();
+        assert server != null;
+
+        CompletableFuture.supplyAsync(() -> this.task.apply(payload), EXECUTOR)
+                .thenCompose(Function.identity())
+                .whenCompleteAsync((result, throwable) -> {
+                    this.complete(player, result, throwable);
+                    onFinished.run();
+                }, server);
+    }
+
+    /**
+     * Hands the result of the task to the completion handler. This method runs on the server thread.
+     *
+     * @param player    The player who clicked the button.
+     * @param result    The result of the task, or null if it failed.
+     * @param throwable The exception the task failed with, or null if it succeeded.
+     */
+    private void complete(ServerPlayerEntity player, T result, Throwable throwable) {
+        if (throwable != null) {
+            Daedalus.LOGGER.error("Asynchronous dialog callback for player {} failed.", player.getUuid(), throwable);
+            return;
+        }
+        if (player.isDisconnected()) return;
+
+        try {
+            this.onComplete.accept(player, result);
+        }
+        catch (Exception e) {
+            Daedalus.LOGGER.error("Asynchronous dialog callback for player {} threw an exception.", player.getUuid(), e);
+        }
+    }
+}
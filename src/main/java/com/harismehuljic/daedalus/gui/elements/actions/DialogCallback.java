@@ -0,0 +1,96 @@
+package com.harismehuljic.daedalus.gui.elements.actions;
+
+import com.harismehuljic.daedalus.gui.DialogTemplate;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import com.harismehuljic.daedalus.gui.elements.input.PayloadSchema;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.function.Consumer;
+
+/**
+ * A callback that is executed when a player clicks an {@link ActionButton}.
+ * <p>
+ * Callbacks are executed on the server thread, unless they are an {@link AsyncDialogCallback}, in which case
+ * they are started straight from the network thread and run on a separate executor.
+ * </p>
+ */
+@FunctionalInterface
+public interface DialogCallback {
+    /**
+     * Executes this callback.
+     *
+     * @param player  The player who clicked the button.
+     * @param payload The values of the dialog's input elements, keyed by the input elements' keys.
+     */
+    void execute(ServerPlayerEntity player, NbtCompound payload);
+
+    /**
+     * Executes this callback with a payload that has already been decoded with the dialog's schema.
+     *
+     * @param player  The player who clicked the button.
+     * @param payload The decoded values of the dialog's input elements.
+     *
+     * @implNote By default, this passes the raw payload to {@link #execute(ServerPlayerEntity, NbtCompound)}.
+     */
+    default void execute(ServerPlayerEntity player, DialogPayload payload) {
+        this.execute(player, payload.getNbt());
+    }
+
+    /**
+     * Wraps a {@link Consumer} which only needs the payload into a DialogCallback.
+     *
+     * @param consumer The consumer to wrap.
+     * @return A DialogCallback that passes the payload to the given consumer.
+     */
+    static DialogCallback of(Consumer<NbtCompound> consumer) {
+        return (player, payload) -> consumer.accept(payload);
+    }
+
+    /**
+     * Wraps a {@link PayloadCallback} into a DialogCallback, so that it receives the typed payload decoded by the
+     * dialog's schema instead of raw NBT.
+     *
+     * @param callback The callback to wrap.
+     * @return A DialogCallback that passes the decoded payload to the given callback.
+     *
+     * @implNote If the returned callback is executed with a raw payload, the payload is wrapped with
+     * {@link PayloadSchema#EMPTY}, since the dialog's schema is not known. The typed getters of that payload throw,
+     * while {@link DialogPayload#getNbt()} still returns the raw values.
+     */
+    static DialogCallback typed(PayloadCallback callback) {
+        return new DialogCallback() {
+            @Override
+            public void execute(ServerPlayerEntity player, NbtCompound payload) {
+                callback.execute(player, PayloadSchema.EMPTY.decode(payload));
+            }
+
+            @Override
+            public void execute(ServerPlayerEntity player, DialogPayload payload) {
+                callback.execute(player, payload);
+            }
+        };
+    }
+
+    /**
+     * Wraps a {@link ResponseCallback} into a DialogCallback, which opens the dialog returned by the callback, or
+     * closes the dialog if it returns null.
+     *
+     * @param callback The callback to wrap.
+     * @return A DialogCallback that answers each click with the next dialog.
+     *
+     * @apiNote Together with {@link net.minecraft.dialog.AfterAction#WAIT_FOR_RESPONSE}, this updates the dialog in
+     * place, as the client keeps waiting on the same screen instead of closing it first.
+     */
+    static DialogCallback respond(ResponseCallback callback) {
+        return typed((player, payload) -> {
+            DialogTemplate next = callback.respond(player, payload);
+            if (next != null) {
+                next.openDialog(player);
+            }
+            else {
+                player.closeDialog();
+            }
+        });
+    }
+}
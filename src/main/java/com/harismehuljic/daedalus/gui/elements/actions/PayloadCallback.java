@@ -0,0 +1,21 @@
+package com.harismehuljic.daedalus.gui.elements.actions;
+
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * A callback that receives the payload of a click as a typed {@link DialogPayload}, rather than as raw NBT.
+ * <p>
+ * Use {@link DialogCallback#typed(PayloadCallback)} to pass a PayloadCallback to an {@link ActionButton}.
+ * </p>
+ */
+@FunctionalInterface
+public interface PayloadCallback {
+    /**
+     * Executes this callback.
+     *
+     * @param player  The player who clicked the button.
+     * @param payload The decoded values of the dialog's input elements.
+     */
+    void execute(ServerPlayerEntity player, DialogPayload payload);
+}
@@ -0,0 +1,25 @@
+package com.harismehuljic.daedalus.gui.elements.actions;
+
+import com.harismehuljic.daedalus.gui.DialogTemplate;
+import com.harismehuljic.daedalus.gui.elements.input.DialogPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * A callback that answers a click with the dialog the player should see next.
+ * <p>
+ * Use {@link DialogCallback#respond(ResponseCallback)} to pass a ResponseCallback to an {@link ActionButton}. It is
+ * meant for dialogs whose after action is {@link net.minecraft.dialog.AfterAction#WAIT_FOR_RESPONSE}, where the client
+ * keeps the screen open until the next dialog arrives.
+ * </p>
+ */
+@FunctionalInterface
+public interface ResponseCallback {
+    /**
+     * Executes this callback.
+     *
+     * @param player  The player who clicked the button.
+     * @param payload The decoded values of the dialog's input elements.
+     * @return The dialog to show the player next, or null to close the dialog.
+     */
+    DialogTemplate respond(ServerPlayerEntity player, DialogPayload payload);
+}
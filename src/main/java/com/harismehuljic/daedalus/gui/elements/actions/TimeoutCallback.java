@@ -0,0 +1,18 @@
+package com.harismehuljic.daedalus.gui.elements.actions;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * A callback that is executed on the server thread when a dialog expires before the player answered it.
+ *
+ * @see com.harismehuljic.daedalus.data.DialogTimeout
+ */
+@FunctionalInterface
+public interface TimeoutCallback {
+    /**
+     * Executes this callback.
+     *
+     * @param player The player whose dialog expired. The dialog has already been closed.
+     */
+    void onTimeout(ServerPlayerEntity player);
+}
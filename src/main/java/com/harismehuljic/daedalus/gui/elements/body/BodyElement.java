@@ -1,5 +1,6 @@
 package com.harismehuljic.daedalus.gui.elements.body;
 
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import net.minecraft.dialog.body.DialogBody;
 
 /**
@@ -16,4 +17,25 @@ public interface BodyElement {
      * @return The {@link DialogBody} that this element provides.
      */
     DialogBody getBody();
+
+    /**
+     * Returns whether this element contains placeholders that are filled in when the dialog is opened.
+     *
+     * @return True if the element contains placeholders, false otherwise.
+     */
+    default boolean hasPlaceholders() {
+        return false;
+    }
+
+    /**
+     * Retrieves the dialog body associated with this element, with its placeholders filled in.
+     *
+     * @param values The values of the placeholders.
+     * @return The {@link DialogBody} that this element provides.
+     *
+     * @implNote By default, this returns {@link #getBody()}, which is correct for elements without placeholders.
+     */
+    default DialogBody getBody(PlaceholderValues values) {
+        return this.getBody();
+    }
 }
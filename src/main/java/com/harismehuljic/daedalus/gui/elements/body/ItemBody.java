@@ -1,5 +1,6 @@
 package com.harismehuljic.daedalus.gui.elements.body;
 
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import net.minecraft.dialog.body.DialogBody;
 import net.minecraft.dialog.body.ItemDialogBody;
 import net.minecraft.dialog.body.PlainMessageDialogBody;
@@ -19,7 +20,7 @@ public class ItemBody implements BodyElement {
     private final ItemStack itemStack;
     private boolean showDecorations = true;
     private boolean showTooltip = true;
-    private Optional<PlainMessageDialogBody> description = Optional.empty();
+    private Optional<TextBody> description = Optional.empty();
     private int width = 25;
     private int height = 25;
 
@@ -79,12 +80,24 @@ public class ItemBody implements BodyElement {
      * @see TextBody
      */
     public ItemBody setDescription(TextBody description) {
-        this.description = Optional.of((PlainMessageDialogBody) description.getBody());
+        this.description = Optional.of(description);
         return this;
     }
 
     @Override
     public DialogBody getBody() {
-        return new ItemDialogBody(this.itemStack, this.description, this.showDecorations, this.showTooltip, this.width, this.height);
+        return this.getBody(PlaceholderValues.EMPTY);
+    }
+
+    @Override
+    public boolean hasPlaceholders() {
+        return this.description.isPresent() && this.description.get().hasPlaceholders();
+    }
+
+    @Override
+    public DialogBody getBody(PlaceholderValues values) {
+        Optional<PlainMessageDialogBody> descriptionBody = this.description
+                .map(textBody -> (PlainMessageDialogBody) textBody.getBody(values));
+        return new ItemDialogBody(this.itemStack, descriptionBody, this.showDecorations, this.showTooltip, this.width, this.height);
     }
 }
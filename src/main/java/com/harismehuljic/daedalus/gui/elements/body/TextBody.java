@@ -1,15 +1,15 @@
 package com.harismehuljic.daedalus.gui.elements.body;
 
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import com.harismehuljic.daedalus.gui.elements.text.StylableText;
 import net.minecraft.dialog.body.DialogBody;
 import net.minecraft.dialog.body.PlainMessageDialogBody;
-import net.minecraft.text.Text;
 
 /**
  * Represents a body element that contains text, which can be displayed in a dialog.
  */
 public class TextBody implements BodyElement {
-    private final Text text;
+    private final StylableText text;
     private final int width;
 
     /**
@@ -23,7 +23,7 @@ public class TextBody implements BodyElement {
      * @param text The text to be displayed in the dialog body.
      */
     public TextBody(StylableText text) {
-        this.text = text.getText();
+        this.text = text;
         this.width = PlainMessageDialogBody.DEFAULT_WIDTH;
     }
 
@@ -39,12 +39,22 @@ public class TextBody implements BodyElement {
             throw new IllegalArgumentException("Width must be a non-negative integer greater than 0.");
         }
 
-        this.text = text.getText();
+        this.text = text;
         this.width = width;
     }
 
     @Override
     public DialogBody getBody() {
-        return new PlainMessageDialogBody(this.text, this.width);
+        return new PlainMessageDialogBody(this.text.getSharedText(), this.width);
+    }
+
+    @Override
+    public boolean hasPlaceholders() {
+        return this.text.hasPlaceholders();
+    }
+
+    @Override
+    public DialogBody getBody(PlaceholderValues values) {
+        return new PlainMessageDialogBody(this.text.freeze().resolve(values), this.width);
     }
 }
@@ -34,6 +34,11 @@ public class BooleanInput extends InputElement {
 
     @Override
     protected InputControl getInputControl() {
-        return new BooleanInputControl(this.label.getText(), this.initialValue, "true", "false");
+        return new BooleanInputControl(this.label.getSharedText(), this.initialValue, "true", "false");
+    }
+
+    @Override
+    protected ValueType getValueType() {
+        return ValueType.BOOLEAN;
     }
 }
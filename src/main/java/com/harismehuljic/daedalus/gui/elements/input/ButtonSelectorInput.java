@@ -7,6 +7,8 @@ import net.minecraft.nbt.NbtCompound;
 
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Represents a button selector input element in a dialog, which allows the user to cycle through multiple options
@@ -70,7 +72,7 @@ public class ButtonSelectorInput extends InputElement {
         boolean initial = this.options.isEmpty();
         this.options.add(new SingleOptionInputControl.Entry(
                 id,
-                Optional.ofNullable(displayText.getText()),
+                Optional.ofNullable(displayText.getSharedText()),
                 initial
         ));
 
@@ -88,6 +90,20 @@ public class ButtonSelectorInput extends InputElement {
             throw new IllegalStateException("ButtonSelectorInput must have at least one option.");
         }
 
-        return new SingleOptionInputControl(this.width, this.options, this.label.getText(), this.labelVisible);
+        return new SingleOptionInputControl(this.width, this.options, this.label.getSharedText(), this.labelVisible);
+    }
+
+    @Override
+    protected ValueType getValueType() {
+        return ValueType.STRING;
+    }
+
+    @Override
+    protected InputConstraint getConstraint() {
+        Set<String> ids = this.options.stream().map(SingleOptionInputControl.Entry::id).collect(Collectors.toUnmodifiableSet());
+        return (payload, index) -> {
+            String value = payload.getString(index);
+            return value != null && ids.contains(value);
+        };
     }
 }
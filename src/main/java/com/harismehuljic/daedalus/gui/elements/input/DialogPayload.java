@@ -0,0 +1,131 @@
+package com.harismehuljic.daedalus.gui.elements.input;
+
+import net.minecraft.nbt.NbtCompound;
+
+/**
+ * A typed view of the payload sent back when a dialog's action button is clicked.
+ * <p>
+ * Values are decoded once by the dialog's {@link PayloadSchema} and read back through the input elements that produced
+ * them, for example {@code payload.getString(nameInput)}, without string-keyed lookups, boxing or {@code Optional}s.
+ * </p>
+ */
+public class DialogPayload {
+    private final PayloadSchema schema;
+    private final NbtCompound nbt;
+    private final String[] strings;
+    private final long[] primitives;
+
+    /**
+     * Constructs a DialogPayload from decoded values.
+     *
+     * @param schema     The schema the values were decoded with.
+     * @param nbt        The raw payload.
+     * @param strings    The decoded string values, by input position.
+     * @param primitives The decoded number and boolean values, by input position.
+     */
+    DialogPayload(PayloadSchema schema, NbtCompound nbt, String[] strings, long[] primitives) {
+        this.schema = schema;
+        this.nbt = nbt;
+        this.strings = strings;
+        this.primitives = primitives;
+    }
+
+    /**
+     * Returns the text entered into a text input.
+     *
+     * @param input The text input.
+     * @return The entered text, or null if the payload does not contain it.
+     * @throws IllegalArgumentException If the input is not part of this payload's dialog.
+     */
+    public String getString(TextInput input) throws IllegalArgumentException {
+        return this.getString(this.schema.indexOf(input));
+    }
+
+    /**
+     * Returns the ID of the option selected in a button selector input.
+     *
+     * @param input The button selector input.
+     * @return The selected option's ID, or null if the payload does not contain it.
+     * @throws IllegalArgumentException If the input is not part of this payload's dialog.
+     */
+    public String getString(ButtonSelectorInput input) throws IllegalArgumentException {
+        return this.getString(this.schema.indexOf(input));
+    }
+
+    /**
+     * Returns the value selected in a number input.
+     *
+     * @param input The number input.
+     * @return The selected value, or {@link Float#NaN} if the payload does not contain it.
+     * @throws IllegalArgumentException If the input is not part of this payload's dialog.
+     */
+    public float getFloat(NumberInput input) throws IllegalArgumentException {
+        return this.getFloat(this.schema.indexOf(input));
+    }
+
+    /**
+     * Returns the value of a boolean input.
+     *
+     * @param input The boolean input.
+     * @return The value of the input, or false if the payload does not contain it.
+     * @throws IllegalArgumentException If the input is not part of this payload's dialog.
+     */
+    public boolean getBoolean(BooleanInput input) throws IllegalArgumentException {
+        return this.primitives[this.schema.indexOf(input)] == 1;
+    }
+
+    /**
+     * Returns whether the payload contains a value of the correct type for an input.
+     *
+     * @param input The input element.
+     * @return True if the value is present, false otherwise.
+     * @throws IllegalArgumentException If the input is not part of this payload's dialog.
+     */
+    public boolean has(InputElement input) throws IllegalArgumentException {
+        return this.has(this.schema.indexOf(input));
+    }
+
+    /**
+     * Returns the string value at the given position.
+     *
+     * @param index The position of the input element within the schema.
+     * @return The string value, or null if it is missing.
+     */
+    String getString(int index) {
+        return this.strings[index];
+    }
+
+    /**
+     * Returns the number value at the given position.
+     *
+     * @param index The position of the input element within the schema.
+     * @return The number value, or {@link Float#NaN} if it is missing.
+     */
+    float getFloat(int index) {
+        return Float.intBitsToFloat((int) this.primitives[index]);
+    }
+
+    /**
+     * Returns whether a value of the correct type is present at the given position.
+     *
+     * @param index The position of the input element within the schema.
+     * @return True if the value is present, false otherwise.
+     */
+    boolean has(int index) {
+        return switch (this.schema.getValueType(index)) {
+            case STRING -> this.strings[index] != null;
+            case NUMBER -> !Float.isNaN(Float.intBitsToFloat((int) this.primitives[index]));
+            case BOOLEAN -> this.primitives[index] != -1;
+            case UNTYPED -> this.nbt.contains(this.schema.getKey(index));
+        };
+    }
+
+    /**
+     * Returns the raw payload.
+     *
+     * @return The {@link NbtCompound} sent by the player.
+     */
+    public NbtCompound getNbt() {
+        return this.nbt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.harismehuljic.daedalus.gui.elements.input;
+
+/**
+ * A constraint which the value of an input element must satisfy when a dialog's payload is sent back.
+ * <p>
+ * Constraints are created from an input element's settings when its dialog is compiled and stored in the dialog's
+ * {@link PayloadSchema}, so submissions are always checked against the dialog the player actually received.
+ * </p>
+ */
+@FunctionalInterface
+public interface InputConstraint {
+    /**
+     * A constraint which accepts any value of the correct type.
+     */
+    InputConstraint PRESENT = DialogPayload::has;
+
+    /**
+     * Tests the value at the given position of a decoded payload.
+     *
+     * @param payload The decoded payload.
+     * @param index   The position of the input element within the payload's schema.
+     * @return True if the value is valid, false otherwise.
+     */
+    boolean test(DialogPayload payload, int index);
+}
@@ -1,5 +1,6 @@
 package com.harismehuljic.daedalus.gui.elements.input;
 
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import net.minecraft.dialog.input.InputControl;
 import net.minecraft.dialog.type.DialogInput;
 import net.minecraft.nbt.NbtCompound;
@@ -41,6 +42,45 @@ public abstract class InputElement {
      */
     protected abstract InputControl getInputControl();
 
+    /**
+     * The type of value an input element contributes to the payload of a dialog.
+     */
+    public enum ValueType {
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        /**
+         * A value which is not decoded, and only available through {@link DialogPayload#getNbt()}.
+         */
+        UNTYPED
+    }
+
+    /**
+     * Retrieves the type of value this input element contributes to the payload of a dialog.
+     *
+     * @return The {@link ValueType} of this input element.
+     *
+     * @implNote By default, this is {@link ValueType#UNTYPED}, so the value is only checked for being present.
+     */
+    protected ValueType getValueType() {
+        return ValueType.UNTYPED;
+    }
+
+    /**
+     * Creates the constraint a submitted value of this input element must satisfy.
+     * <p>
+     * The constraint captures the element's current settings, so that it keeps matching the compiled dialog even if
+     * this element is changed afterward.
+     * </p>
+     *
+     * @return The {@link InputConstraint} of this input element.
+     *
+     * @implNote By default, any value of the correct type is accepted.
+     */
+    protected InputConstraint getConstraint() {
+        return InputConstraint.PRESENT;
+    }
+
     /**
      * Retrieves the dialog input representation of this input element.
      * <p>
@@ -53,4 +93,25 @@ public abstract class InputElement {
     public DialogInput getInput() {
         return new DialogInput(this.key, this.getInputControl());
     }
+
+    /**
+     * Returns whether this input element contains placeholders that are filled in when the dialog is opened.
+     *
+     * @return True if the element contains placeholders, false otherwise.
+     */
+    public boolean hasPlaceholders() {
+        return false;
+    }
+
+    /**
+     * Retrieves the dialog input representation of this input element, with its placeholders filled in.
+     *
+     * @param values The values of the placeholders.
+     * @return A {@link DialogInput} representing this input element.
+     *
+     * @implNote By default, this returns {@link #getInput()}, which is correct for elements without placeholders.
+     */
+    public DialogInput getInput(PlaceholderValues values) {
+        return this.getInput();
+    }
 }
@@ -17,6 +17,8 @@ import java.util.Optional;
 public class NumberInput extends InputElement {
     private final StylableText label;
 
+    private static final float STEP_TOLERANCE = 1.0e-3f;
+
     private NumberRangeInputControl.RangeInfo rangeInfo;
 
     /**
@@ -118,6 +120,35 @@ public class NumberInput extends InputElement {
     @Override
     protected InputControl getInputControl() {
         String format = "options.generic_value";
-        return new NumberRangeInputControl(this.width, this.label.getText(), format, this.rangeInfo);
+        return new NumberRangeInputControl(this.width, this.label.getSharedText(), format, this.rangeInfo);
+    }
+
+    @Override
+    protected ValueType getValueType() {
+        return ValueType.NUMBER;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Values must be within the range of this input and, if a step is set, a whole number of steps away
+     * from the initial value, allowing for rounding errors. Like the client's slider, the midpoint of the range is used
+     * in place of the initial value if none is set.
+     */
+    @Override
+    protected InputConstraint getConstraint() {
+        float min = this.rangeInfo.start();
+        float max = this.rangeInfo.end();
+        float step = this.rangeInfo.step().orElse(0f);
+        float anchor = this.rangeInfo.initial().orElse((min + max) / 2);
+
+        return (payload, index) -> {
+            float value = payload.getFloat(index);
+            if (Float.isNaN(value) || value < min || value > max) return false;
+            if (step == 0) return true;
+
+            float steps = (value - anchor) / step;
+            return Math.abs(steps - Math.round(steps)) <= Math.max(STEP_TOLERANCE, Math.ulp(steps));
+        };
     }
 }
@@ -0,0 +1,141 @@
+package com.harismehuljic.daedalus.gui.elements.input;
+
+import net.minecraft.nbt.NbtCompound;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The compiled layout of the payload a dialog sends back when one of its action buttons is clicked.
+ * <p>
+ * A schema is compiled once from a dialog's input elements. It assigns every input a fixed position, so that a
+ * payload can be decoded into a {@link DialogPayload} in a single pass, after which each value is read by position
+ * without any further lookups.
+ * </p>
+ */
+public class PayloadSchema {
+    /**
+     * The schema of a dialog without input elements, which accepts any payload.
+     */
+    public static final PayloadSchema EMPTY = new PayloadSchema(List.of(), Integer.MAX_VALUE);
+
+    private final String[] keys;
+    private final InputElement.ValueType[] types;
+    private final InputConstraint[] constraints;
+    private final int maxEntries;
+    private final IdentityHashMap<InputElement, Integer> indices = new IdentityHashMap<>();
+
+    /**
+     * Compiles a schema from a dialog's input elements.
+     *
+     * @param inputs    The input elements of the dialog, in the order they appear in the dialog.
+     * @param extraKeys The largest number of extra data entries any of the dialog's action buttons adds to its
+     *                  payload.
+     */
+    public PayloadSchema(List<InputElement> inputs, int extraKeys) {
+        this.keys = new String[inputs.size()];
+        this.types = new InputElement.ValueType[inputs.size()];
+        this.constraints = new InputConstraint[inputs.size()];
+        this.maxEntries = inputs.size() + extraKeys;
+
+        for (int i = 0; i < inputs.size(); i++) {
+            InputElement input = inputs.get(i);
+            this.keys[i] = input.key;
+            this.types[i] = input.getValueType();
+            this.constraints[i] = input.getConstraint();
+            this.indices.put(input, i);
+        }
+    }
+
+    /**
+     * Decodes a payload into a typed view.
+     * <p>
+     * Strings are stored as they are, numbers and booleans are stored unboxed. Values that are missing or have the
+     * wrong type are recorded as missing.
+     * </p>
+     *
+     * @param nbt The payload sent by the player.
+     * @return A {@link DialogPayload} holding the decoded values.
+     */
+    public DialogPayload decode(NbtCompound nbt) {
+        String[] strings = new String[this.keys.length];
+        long[] primitives = new long[this.keys.length];
+
+        for (int i = 0; i < this.keys.length; i++) {
+            String key = this.keys[i];
+            switch (this.types[i]) {
+                case STRING -> strings[i] = nbt.getString(key, null);
+                case NUMBER -> primitives[i] = Float.floatToRawIntBits(nbt.getFloat(key, Float.NaN));
+                case BOOLEAN -> primitives[i] = nbt.contains(key) ? (nbt.getBoolean(key, false) ? 1 : 0) : -1;
+                case UNTYPED -> {}
+            }
+        }
+
+        return new DialogPayload(this, nbt, strings, primitives);
+    }
+
+    /**
+     * Validates a decoded payload against the constraints of the dialog's input elements.
+     * <p>
+     * A payload is valid if every input element has a value which satisfies its constraint, and the payload does
+     * not contain more entries than the dialog can send.
+     * </p>
+     *
+     * @param payload The decoded payload.
+     * @return True if the payload is valid, false otherwise.
+     *
+     * @see InputElement#getConstraint()
+     */
+    public boolean validate(DialogPayload payload) {
+        if (payload.getNbt().getSize() > this.maxEntries) return false;
+
+        for (int i = 0; i < this.constraints.length; i++) {
+            if (!this.constraints[i].test(payload, i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the type of the value at the given position.
+     *
+     * @param index The position of the input element.
+     * @return The {@link InputElement.ValueType} of the input element.
+     */
+    InputElement.ValueType getValueType(int index) {
+        return this.types[index];
+    }
+
+    /**
+     * Returns the key of the value at the given position.
+     *
+     * @param index The position of the input element.
+     * @return The key of the input element.
+     */
+    String getKey(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Returns the position of an input element within this schema.
+     *
+     * @param input The input element.
+     * @return The input element's position.
+     * @throws IllegalArgumentException If the input element is not part of this schema's dialog.
+     */
+    int indexOf(InputElement input) throws IllegalArgumentException {
+        Integer index = this.indices.get(input);
+        if (index == null) {
+            throw new IllegalArgumentException(String.format("Input \"%s\" is not part of this dialog.", input.key));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of input elements in this schema.
+     *
+     * @return The number of inputs.
+     */
+    public int size() {
+        return this.keys.length;
+    }
+}
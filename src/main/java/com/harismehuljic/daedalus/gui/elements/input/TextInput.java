@@ -1,11 +1,13 @@
 package com.harismehuljic.daedalus.gui.elements.input;
 
+import com.harismehuljic.daedalus.gui.elements.text.Placeholder;
+import com.harismehuljic.daedalus.gui.elements.text.PlaceholderValues;
 import com.harismehuljic.daedalus.gui.elements.text.StylableText;
 import net.minecraft.dialog.input.InputControl;
 import net.minecraft.dialog.input.TextInputControl;
 import net.minecraft.dialog.input.TextInputControl.Multiline;
+import net.minecraft.dialog.type.DialogInput;
 import net.minecraft.nbt.NbtCompound;
-import net.minecraft.text.Text;
 
 import java.util.Optional;
 
@@ -17,8 +19,9 @@ import java.util.Optional;
  * </p>
  */
 public class TextInput extends InputElement {
-    private final Text label;
+    private final StylableText label;
     private String placeholder = "";
+    private Placeholder<?> placeholderSlot;
 
     private boolean labelVisible = true;
     private int maxLength = 100;
@@ -38,7 +41,7 @@ public class TextInput extends InputElement {
      */
     public TextInput(String key, int width, StylableText label) {
         super(key, width);
-        this.label = label.getText();
+        this.label = label;
     }
 
     /**
@@ -65,6 +68,22 @@ public class TextInput extends InputElement {
      */
     public TextInput setPlaceholder(String placeholder) {
         this.placeholder = placeholder;
+        this.placeholderSlot = null;
+        return this;
+    }
+
+    /**
+     * Sets the placeholder text for this TextInput to a {@link Placeholder} slot, whose value is filled in when the
+     * dialog is opened.
+     *
+     * @param placeholder The placeholder slot whose value is displayed when the input field is empty.
+     * @return The current instance of TextInput for method chaining.
+     *
+     * @apiNote Values longer than the input's maximum length are cut off.
+     */
+    public TextInput setPlaceholder(Placeholder<?> placeholder) {
+        this.placeholder = "";
+        this.placeholderSlot = placeholder;
         return this;
     }
 
@@ -97,6 +116,39 @@ public class TextInput extends InputElement {
 
     @Override
     public InputControl getInputControl() {
-        return new TextInputControl(this.width, this.label, this.labelVisible, this.placeholder, this.maxLength, this.multiline);
+        return new TextInputControl(this.width, this.label.getSharedText(), this.labelVisible, this.placeholder, this.maxLength, this.multiline);
+    }
+
+    @Override
+    public boolean hasPlaceholders() {
+        return this.placeholderSlot != null || this.label.hasPlaceholders();
+    }
+
+    @Override
+    public DialogInput getInput(PlaceholderValues values) {
+        String initial = this.placeholder;
+        if (this.placeholderSlot != null) {
+            initial = values.get(this.placeholderSlot);
+            if (initial.length() > this.maxLength) {
+                initial = initial.substring(0, this.maxLength);
+            }
+        }
+
+        return new DialogInput(this.key, new TextInputControl(this.width, this.label.freeze().resolve(values), this.labelVisible,
+                initial, this.maxLength, this.multiline));
+    }
+
+    @Override
+    protected ValueType getValueType() {
+        return ValueType.STRING;
+    }
+
+    @Override
+    protected InputConstraint getConstraint() {
+        int maxLength = this.maxLength;
+        return (payload, index) -> {
+            String value = payload.getString(index);
+            return value != null && value.length() <= maxLength;
+        };
     }
 }
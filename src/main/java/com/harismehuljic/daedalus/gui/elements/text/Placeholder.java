@@ -0,0 +1,95 @@
+package com.harismehuljic.daedalus.gui.elements.text;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A typed slot in a dialog's text, whose value is filled in for each player when the dialog is opened.
+ * <p>
+ * Placeholders are added to text with {@link StylableText#appendPlaceholder(Placeholder)}, and their values are
+ * provided through {@link PlaceholderValues} when opening the dialog. Each placeholder converts its value to a string
+ * using its formatter, so callers can pass values such as numbers directly.
+ * </p>
+ *
+ * @param <T> The type of value this placeholder accepts.
+ */
+public final class Placeholder<T> {
+    private static final ConcurrentHashMap<String, Placeholder<String>> NAMED = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Function<? super T, String> formatter;
+
+    private Placeholder(String name, Function<? super T, String> formatter) {
+        this.name = name;
+        this.formatter = formatter;
+    }
+
+    /**
+     * Creates a placeholder which accepts a string value.
+     *
+     * @param name The name of the placeholder, which is shown in its place if no value is provided.
+     * @return A new placeholder.
+     */
+    public static Placeholder<String> of(String name) {
+        return new Placeholder<>(name, Function.identity());
+    }
+
+    /**
+     * Returns the shared placeholder with the given name, which accepts a string value.
+     * <p>
+     * Unlike {@link #of(String)}, calling this method twice with the same name returns the same placeholder. This is
+     * how placeholders written in markup, such as {@code {player}}, are referred to when providing their values.
+     * </p>
+     *
+     * @param name The name of the placeholder.
+     * @return The placeholder with the given name.
+     *
+     * @see TextMarkup
+     */
+    public static Placeholder<String> named(String name) {
+        return NAMED.computeIfAbsent(name, Placeholder::of);
+    }
+
+    /**
+     * Creates a placeholder which accepts any value and converts it to a string with the given formatter.
+     *
+     * @param name      The name of the placeholder, which is shown in its place if no value is provided.
+     * @param formatter The function that converts a value into the string shown to the player.
+     * @param <T>       The type of value the placeholder accepts.
+     * @return A new placeholder.
+     *
+     * @apiNote For example, {@code Placeholder.of("balance", balance -> String.format("%.2f", balance))} creates a
+     * placeholder which accepts a number and shows it with two decimal places.
+     */
+    public static <T> Placeholder<T> of(String name, Function<? super T, String> formatter) {
+        return new Placeholder<>(name, formatter);
+    }
+
+    /**
+     * Returns the name of this placeholder.
+     *
+     * @return The placeholder's name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Converts a value to the string shown to the player.
+     *
+     * @param value The value to convert.
+     * @return The formatted value.
+     */
+    String format(T value) {
+        return this.formatter.apply(value);
+    }
+
+    /**
+     * Returns the text shown in place of this placeholder when no value has been provided.
+     *
+     * @return The placeholder's name in braces, for example "{player}".
+     */
+    String unresolved() {
+        return "{" + this.name + "}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.harismehuljic.daedalus.gui.elements.text;
+
+import java.util.IdentityHashMap;
+
+/**
+ * The values of the {@link Placeholder}s in a dialog, provided when the dialog is opened for a player.
+ */
+public class PlaceholderValues {
+    /**
+     * An empty set of values, which leaves every placeholder unresolved.
+     */
+    public static final PlaceholderValues EMPTY = new PlaceholderValues();
+
+    private final IdentityHashMap<Placeholder<?>, String> values = new IdentityHashMap<>();
+
+    /**
+     * Sets the value of a placeholder.
+     *
+     * @param placeholder The placeholder to set the value of.
+     * @param value       The value of the placeholder.
+     * @param <T>         The type of value the placeholder accepts.
+     * @return The current instance of PlaceholderValues for method chaining.
+     * @throws UnsupportedOperationException If this is {@link #EMPTY}.
+     */
+    public <T> PlaceholderValues set(Placeholder<T> placeholder, T value) throws UnsupportedOperationException {
+        if (this == EMPTY) {
+            throw new UnsupportedOperationException("The empty placeholder values cannot be modified.");
+        }
+
+        this.values.put(placeholder, placeholder.format(value));
+        return this;
+    }
+
+    /**
+     * Sets the value of the shared placeholder with the given name, such as a placeholder written in markup.
+     *
+     * @param name  The name of the placeholder.
+     * @param value The value of the placeholder.
+     * @return The current instance of PlaceholderValues for method chaining.
+     * @throws UnsupportedOperationException If this is {@link #EMPTY}.
+     *
+     * @see Placeholder#named(String)
+     */
+    public PlaceholderValues set(String name, String value) throws UnsupportedOperationException {
+        return this.set(Placeholder.named(name), value);
+    }
+
+    /**
+     * Returns the formatted value of a placeholder.
+     *
+     * @param placeholder The placeholder to get the value of.
+     * @return The formatted value, or the placeholder's name in braces if no value has been set.
+     */
+    public String get(Placeholder<?> placeholder) {
+        String value = this.values.get(placeholder);
+        return value != null ? value : placeholder.unresolved();
+    }
+}
@@ -3,6 +3,11 @@ package com.harismehuljic.daedalus.gui.elements.text;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 /**
  * A class that allows for creating and styling {@link Text} objects in a more convenient way.
@@ -10,9 +15,22 @@ import net.minecraft.util.Formatting;
  * Provides several builder style methods for setting the color of text and applying various
  * styles such as bold, italic, underline, strikethrough, and obfuscated.
  * </p>
+ * <p>
+ * Text may also contain {@link Placeholder} slots, whose values are filled in through {@link #resolve(PlaceholderValues)}
+ * without rebuilding the parts of the text that do not contain placeholders.
+ * </p>
+ * <p>
+ * Once a text has been styled, {@link #freeze()} turns it into an immutable copy which can be shared between dialogs
+ * and threads. When dialogs are compiled, the text of frozen texts is interned, so identical labels used by many
+ * dialogs share a single {@link Text}.
+ * </p>
  */
 public class StylableText {
     private final MutableText text;
+    private final IdentityHashMap<Text, Placeholder<?>> placeholders;
+    private final boolean frozen;
+    private volatile StylableText frozenCopy;
+    private volatile Text sharedText;
 
     /**
      * Constructs a StylableText with the given contents.
@@ -20,14 +38,34 @@ public class StylableText {
      * @param contents The initial text content.
      */
     public StylableText(String contents) {
-        this.text = Text.literal(contents);
+        this(Text.literal(contents), new IdentityHashMap<>(), false);
     }
 
     /**
      * Constructs an empty StylableText.
      */
     public StylableText() {
-        this.text = Text.empty();
+        this(Text.empty(), new IdentityHashMap<>(), false);
+    }
+
+    /**
+     * Parses markup, such as {@code <red><b>Warning</b></red> {player}}, into a frozen StylableText.
+     *
+     * @param markup The markup to parse.
+     * @return The frozen text described by the markup, which is cached and shared by every caller.
+     * @throws IllegalArgumentException If the markup is malformed.
+     *
+     * @see TextMarkup
+     */
+    public static StylableText fromMarkup(String markup) throws IllegalArgumentException {
+        return TextMarkup.parse(markup);
+    }
+
+    private StylableText(MutableText text, IdentityHashMap<Text, Placeholder<?>> placeholders, boolean frozen) {
+        this.text = text;
+        this.placeholders = placeholders;
+        this.frozen = frozen;
+        this.frozenCopy = frozen ? this : null;
     }
 
     /**
@@ -35,8 +73,10 @@ public class StylableText {
      *
      * @param contents The text to append.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText append(String contents) {
+    public StylableText append(String contents) throws IllegalStateException {
+        this.checkMutable();
         this.text.append(Text.literal(contents));
         return this;
     }
@@ -46,20 +86,44 @@ public class StylableText {
      *
      * @param text The {@link Text} object to append.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText append(Text text) {
+    public StylableText append(Text text) throws IllegalStateException {
+        this.checkMutable();
         this.text.append(text);
         return this;
     }
 
     /**
      * Appends another StylableText to the current text.
+     * <p>
+     * A copy of the other text is appended, so changing it afterward does not affect this text.
+     * </p>
      *
      * @param stylableText The StylableText to append.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText append(StylableText stylableText) {
-        this.text.append(stylableText.getText());
+    public StylableText append(StylableText stylableText) throws IllegalStateException {
+        this.checkMutable();
+        this.text.append(copy(stylableText.text, stylableText.placeholders, this.placeholders));
+        return this;
+    }
+
+    /**
+     * Appends a placeholder slot to the current text, whose value is filled in when the text is resolved.
+     *
+     * @param placeholder The placeholder to append.
+     * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
+     *
+     * @see #resolve(PlaceholderValues)
+     */
+    public StylableText appendPlaceholder(Placeholder<?> placeholder) throws IllegalStateException {
+        this.checkMutable();
+        MutableText slot = Text.literal(placeholder.unresolved());
+        this.text.append(slot);
+        this.placeholders.put(slot, placeholder);
         return this;
     }
 
@@ -68,8 +132,10 @@ public class StylableText {
      *
      * @param color The color to set, represented as an integer. Can be a hex color code (e.g., 0xFF0000 for red).
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setColor(int color) {
+    public StylableText setColor(int color) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withColor(color));
         return this;
     }
@@ -79,8 +145,10 @@ public class StylableText {
      *
      * @param color The {@link Formatting} color to set.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setColor(Formatting color) {
+    public StylableText setColor(Formatting color) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withColor(color));
         return this;
     }
@@ -90,8 +158,10 @@ public class StylableText {
      *
      * @param bold true to make the text bold, false to remove bold styling.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setBold(boolean bold) {
+    public StylableText setBold(boolean bold) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withBold(bold));
         return this;
     }
@@ -101,8 +171,10 @@ public class StylableText {
      *
      * @param italic true to make the text italic, false to remove italic styling.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setItalic(boolean italic) {
+    public StylableText setItalic(boolean italic) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withItalic(italic));
         return this;
     }
@@ -112,8 +184,10 @@ public class StylableText {
      *
      * @param underline true to underline the text, false to remove underline styling.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setUnderline(boolean underline) {
+    public StylableText setUnderline(boolean underline) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withUnderline(underline));
         return this;
     }
@@ -123,8 +197,10 @@ public class StylableText {
      *
      * @param strikethrough true to apply strikethrough, false to remove it.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setStrikethrough(boolean strikethrough) {
+    public StylableText setStrikethrough(boolean strikethrough) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withStrikethrough(strikethrough));
         return this;
     }
@@ -134,8 +210,10 @@ public class StylableText {
      *
      * @param obfuscated true to apply obfuscation, false to remove it.
      * @return This StylableText instance for method chaining.
+     * @throws IllegalStateException If this text is frozen.
      */
-    public StylableText setObfuscated(boolean obfuscated) {
+    public StylableText setObfuscated(boolean obfuscated) throws IllegalStateException {
+        this.checkMutable();
         this.text.setStyle(this.text.getStyle().withObfuscated(obfuscated));
         return this;
     }
@@ -143,9 +221,185 @@ public class StylableText {
     /**
      * Returns the underlying {@link Text} object.
      *
-     * @return The Text object representing this StylableText.
+     * @return The Text object representing this StylableText, or a copy of it if this text is frozen.
+     *
+     * @apiNote Unless this text is frozen, the returned object changes whenever this StylableText is styled or appended
+     * to. Frozen texts return a new copy on each call, since their interned Text is shared with every identical text.
      */
     public Text getText() {
-        return this.text;
+        return this.frozen ? copy(this.text, this.placeholders, new IdentityHashMap<>()) : this.text;
+    }
+
+    /**
+     * Returns the interned {@link Text} object of this text, freezing it first.
+     *
+     * @return The Text object shared by every identical compiled text, which must not be modified.
+     *
+     * @apiNote This is used by Daedalus when compiling dialogs, so that identical labels share a single Text object.
+     * Use {@link #getText()} for a copy that may be modified.
+     */
+    @ApiStatus.Internal
+    public Text getSharedText() {
+        StylableText frozen = this.freeze();
+        Text sharedText = frozen.sharedText;
+        if (sharedText == null) {
+            sharedText = frozen.share(frozen.text);
+            frozen.sharedText = sharedText;
+        }
+        return sharedText;
+    }
+
+    /**
+     * Returns an immutable copy of this text.
+     * <p>
+     * The copy is cached until this text is changed, and freezing a frozen text returns the text itself. Its
+     * {@link #getSharedText() shared text} is interned, so identical texts, such as a "Confirm" label used by many
+     * dialogs, compile to the same {@link Text} object.
+     * </p>
+     *
+     * @return A frozen StylableText, whose styling methods throw an {@link IllegalStateException}.
+     */
+    public StylableText freeze() {
+        StylableText frozenCopy = this.frozenCopy;
+        if (frozenCopy == null) {
+            IdentityHashMap<Text, Placeholder<?>> placeholders = new IdentityHashMap<>();
+            frozenCopy = new StylableText(copy(this.text, this.placeholders, placeholders), placeholders, true);
+            this.frozenCopy = frozenCopy;
+        }
+        return frozenCopy;
+    }
+
+    /**
+     * Returns whether this text is frozen.
+     *
+     * @return True if this text is immutable, false otherwise.
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Returns whether this text contains any placeholder slots.
+     *
+     * @return True if the text contains placeholders, false otherwise.
+     */
+    public boolean hasPlaceholders() {
+        return !this.placeholders.isEmpty();
+    }
+
+    /**
+     * Returns a {@link Text} object in which every placeholder slot has been replaced by its value.
+     * <p>
+     * Only the placeholders themselves and the parts of the text containing them are rebuilt. Every part of the
+     * text without placeholders is shared with the underlying {@link Text} object.
+     * </p>
+     *
+     * @param values The values of the placeholders.
+     * @return The resolved Text object, or the underlying Text object if this text has no placeholders.
+     *
+     * @apiNote If this text is frozen, the returned object shares its parts with this text and must not be modified.
+     */
+    public Text resolve(PlaceholderValues values) {
+        if (this.placeholders.isEmpty()) {
+            return this.text;
+        }
+        return this.resolve(this.text, values);
+    }
+
+    /**
+     * Copies a node of the text tree and all of its siblings, so the copy does not share any mutable nodes.
+     *
+     * @param node               The node to copy.
+     * @param placeholders       The placeholder slots of the text the node belongs to.
+     * @param copiedPlaceholders The placeholder slots of the copy, to which the slots within this node are added.
+     * @return The copy of the node.
+     */
+    private static MutableText copy(Text node, IdentityHashMap<Text, Placeholder<?>> placeholders,
+                                    IdentityHashMap<Text, Placeholder<?>> copiedPlaceholders) {
+        MutableText copy = MutableText.of(node.getContent()).setStyle(node.getStyle());
+        for (Text sibling : node.getSiblings()) {
+            copy.append(copy(sibling, placeholders, copiedPlaceholders));
+        }
+
+        Placeholder<?> placeholder = placeholders.get(node);
+        if (placeholder != null) {
+            copiedPlaceholders.put(copy, placeholder);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a single node of the text tree and its siblings, interning every part without placeholders.
+     *
+     * @param node The node to copy.
+     * @return The shared copy of the node.
+     */
+    private MutableText share(Text node) {
+        MutableText copy = MutableText.of(node.getContent()).setStyle(TextInterner.intern(node.getStyle()));
+        for (Text sibling : node.getSiblings()) {
+            copy.append(this.share(sibling));
+        }
+        return this.containsPlaceholder(node) ? copy : TextInterner.intern(copy);
+    }
+
+    /**
+     * Returns whether a node of the text tree or any of its siblings is a placeholder slot.
+     *
+     * @param node The node to check.
+     * @return True if the node contains a placeholder, false otherwise.
+     */
+    private boolean containsPlaceholder(Text node) {
+        if (this.placeholders.containsKey(node)) return true;
+        for (Text sibling : node.getSiblings()) {
+            if (this.containsPlaceholder(sibling)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Throws if this text is frozen, and otherwise discards its cached frozen copy, since it is about to change.
+     *
+     * @throws IllegalStateException If this text is frozen.
+     */
+    private void checkMutable() throws IllegalStateException {
+        if (this.frozen) {
+            throw new IllegalStateException("Frozen text cannot be modified.");
+        }
+        this.frozenCopy = null;
+    }
+
+    /**
+     * Resolves the placeholders within a single node of the text tree.
+     *
+     * @param node   The node to resolve.
+     * @param values The values of the placeholders.
+     * @return The resolved node, or the node itself if neither it nor its siblings contain placeholders.
+     */
+    private Text resolve(Text node, PlaceholderValues values) {
+        Placeholder<?> placeholder = this.placeholders.get(node);
+        if (placeholder != null) {
+            return Text.literal(values.get(placeholder));
+        }
+
+        List<Text> siblings = node.getSiblings();
+        List<Text> resolvedSiblings = null;
+        for (int i = 0; i < siblings.size(); i++) {
+            Text sibling = siblings.get(i);
+            Text resolved = this.resolve(sibling, values);
+            if (resolved != sibling && resolvedSiblings == null) {
+                resolvedSiblings = new ArrayList<>(siblings.subList(0, i));
+            }
+            if (resolvedSiblings != null) {
+                resolvedSiblings.add(resolved);
+            }
+        }
+
+        if (resolvedSiblings == null) {
+            return node;
+        }
+
+        MutableText copy = MutableText.of(node.getContent()).setStyle(node.getStyle());
+        resolvedSiblings.forEach(copy::append);
+        return copy;
     }
 }
@@ -0,0 +1,56 @@
+package com.harismehuljic.daedalus.gui.elements.text;
+
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interns the styles and text of compiled {@link StylableText}s, so that identical texts share a single instance.
+ * <p>
+ * Interned values are only weakly referenced, so a value is dropped once no compiled dialog uses it anymore. Texts
+ * built at runtime, such as page numbers or per-player values, therefore never crowd out the labels shared by many
+ * dialogs.
+ * </p>
+ */
+final class TextInterner {
+    private static final Map<Style, WeakReference<Style>> STYLES = new WeakHashMap<>();
+    private static final Map<Text, WeakReference<MutableText>> TEXTS = new WeakHashMap<>();
+
+    private TextInterner() {}
+
+    /**
+     * Returns the interned instance of a style.
+     *
+     * @param style The style to intern.
+     * @return An equal style, which is shared with every other text using it.
+     */
+    static Style intern(Style style) {
+        if (style.isEmpty()) return Style.EMPTY;
+        return intern(STYLES, style);
+    }
+
+    /**
+     * Returns the interned instance of a text. The text must not be modified afterward.
+     *
+     * @param text The text to intern.
+     * @return An equal text, which is shared with every other compiled text containing it.
+     */
+    static MutableText intern(MutableText text) {
+        return intern(TEXTS, text);
+    }
+
+    private static <K, V extends K> V intern(Map<K, WeakReference<V>> map, V value) {
+        synchronized (map) {
+            WeakReference<V> reference = map.get(value);
+            V existing = reference != null ? reference.get() : null;
+            if (existing != null) return existing;
+
+            map.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+}
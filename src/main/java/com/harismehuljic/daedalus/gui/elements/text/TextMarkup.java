@@ -0,0 +1,258 @@
+package com.harismehuljic.daedalus.gui.elements.text;
+
+import com.harismehuljic.daedalus.DaedalusConfig;
+import net.minecraft.util.Formatting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parses a compact markup format into frozen {@link StylableText}, for dialog text that is written in config rather
+ * than in code.
+ * <p>
+ * Markup consists of plain text, style tags and placeholders. For example, {@code <red><b>Warning</b></red> {player}}
+ * shows a bold red "Warning" followed by the value of the {@code player} placeholder. The following tags are supported:
+ * </p>
+ * <ul>
+ *     <li>The name of any {@link Formatting} color, such as {@code <red>} or {@code <dark_aqua>}.</li>
+ *     <li>A hex color, such as {@code <#FF5555>}.</li>
+ *     <li>{@code <b>} or {@code <bold>}, {@code <i>} or {@code <italic>}, {@code <u>} or {@code <underline>},
+ *     {@code <s>} or {@code <strikethrough>}, and {@code <obf>} or {@code <obfuscated>}.</li>
+ * </ul>
+ * <p>
+ * A tag applies until it is closed by {@code </name>}, or by {@code </>}, which closes the most recently opened tag.
+ * Tags that are still open at the end of the markup are closed implicitly. A placeholder is written as {@code {name}}
+ * and refers to {@link Placeholder#named(String)}, so its value is provided with
+ * {@link PlaceholderValues#set(String, String)}. A backslash escapes the character following it, for example
+ * {@code \<} or {@code \{}.
+ * </p>
+ * <p>
+ * Parsed markup is kept in a bounded cache keyed by the source string. Since the result is frozen, parsing the same
+ * markup again for every open only costs a cache lookup, and its placeholders are resolved through
+ * {@link StylableText#resolve(PlaceholderValues)} without parsing it again.
+ * </p>
+ *
+ * @see DaedalusConfig#setMarkupCacheSize(int)
+ */
+public final class TextMarkup {
+    private static final LinkedHashMap<String, StylableText> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StylableText> eldest) {
+            return this.size() > DaedalusConfig.getMarkupCacheSize();
+        }
+    };
+
+    private TextMarkup() {}
+
+    /**
+     * Parses markup into a frozen {@link StylableText}, or returns the cached result if the same markup has been
+     * parsed before.
+     *
+     * @param markup The markup to parse.
+     * @return The frozen text described by the markup.
+     * @throws IllegalArgumentException If the markup contains an unknown tag, closes a tag that is not open, or
+     * contains an unterminated tag or placeholder.
+     */
+    public static StylableText parse(String markup) throws IllegalArgumentException {
+        synchronized (CACHE) {
+            StylableText cached = CACHE.get(markup);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        StylableText parsed = new Parser(markup).parse();
+        synchronized (CACHE) {
+            CACHE.put(markup, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Removes every parsed markup string from the cache, for example after the config containing it was reloaded.
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * An open style tag.
+     *
+     * @param name  The canonical name of the tag, which a closing tag must match.
+     * @param style The function applying the tag's style to a segment of text.
+     */
+    private record Tag(String name, Consumer<StylableText> style) {}
+
+    /**
+     * Parses a single markup string, splitting it into segments that each carry the style of the tags open at the
+     * time.
+     */
+    private static final class Parser {
+        private final String markup;
+        private final ArrayList<Tag> openTags = new ArrayList<>();
+        private final StringBuilder literal = new StringBuilder();
+        private final StylableText result = new StylableText();
+
+        private Parser(String markup) {
+            this.markup = markup;
+        }
+
+        /**
+         * Parses the markup.
+         *
+         * @return The frozen text described by the markup.
+         * @throws IllegalArgumentException If the markup is malformed.
+         */
+        private StylableText parse() throws IllegalArgumentException {
+            int length = this.markup.length();
+            int i = 0;
+            while (i < length) {
+                char c = this.markup.charAt(i);
+                if (c == '\\' && i + 1 < length) {
+                    this.literal.append(this.markup.charAt(i + 1));
+                    i += 2;
+                }
+                else if (c == '<') {
+                    int end = this.find('>', i);
+                    this.flush();
+                    this.tag(this.markup.substring(i + 1, end), i);
+                    i = end + 1;
+                }
+                else if (c == '{') {
+                    int end = this.find('}', i);
+                    String name = this.markup.substring(i + 1, end);
+                    if (name.isEmpty()) {
+                        throw new IllegalArgumentException("Empty placeholder at index " + i + " in markup: " + this.markup);
+                    }
+                    this.flush();
+                    this.result.append(this.style(new StylableText().appendPlaceholder(Placeholder.named(name))));
+                    i = end + 1;
+                }
+                else {
+                    this.literal.append(c);
+                    i++;
+                }
+            }
+
+            this.flush();
+            return this.result.freeze();
+        }
+
+        /**
+         * Finds the character terminating a tag or placeholder.
+         *
+         * @param terminator The terminating character.
+         * @param start      The index of the opening character.
+         * @return The index of the terminating character.
+         * @throws IllegalArgumentException If the tag or placeholder is not terminated.
+         */
+        private int find(char terminator, int start) throws IllegalArgumentException {
+            int end = this.markup.indexOf(terminator, start + 1);
+            if (end < 0) {
+                throw new IllegalArgumentException("Missing '" + terminator + "' for index " + start + " in markup: " + this.markup);
+            }
+            return end;
+        }
+
+        /**
+         * Opens or closes a tag.
+         *
+         * @param tag   The contents of the tag, without the angle brackets.
+         * @param index The index of the tag in the markup, used in error messages.
+         * @throws IllegalArgumentException If the tag is unknown, or closes a tag that is not open.
+         */
+        private void tag(String tag, int index) throws IllegalArgumentException {
+            if (tag.startsWith("/")) {
+                String name = tag.length() == 1 ? null : canonicalName(tag.substring(1));
+                for (int i = this.openTags.size() - 1; i >= 0; i--) {
+                    if (name == null || this.openTags.get(i).name().equals(name)) {
+                        this.openTags.remove(i);
+                        return;
+                    }
+                }
+                throw new IllegalArgumentException("Closing tag <" + tag + "> at index " + index + " does not match an open tag in markup: " + this.markup);
+            }
+
+            String name = canonicalName(tag);
+            Consumer<StylableText> style = switch (name) {
+                case "bold" -> text -> text.setBold(true);
+                case "italic" -> text -> text.setItalic(true);
+                case "underline" -> text -> text.setUnderline(true);
+                case "strikethrough" -> text -> text.setStrikethrough(true);
+                case "obfuscated" -> text -> text.setObfuscated(true);
+                default -> this.color(name, index);
+            };
+            this.openTags.add(new Tag(name, style));
+        }
+
+        /**
+         * Resolves a color tag.
+         *
+         * @param name  The name of the tag.
+         * @param index The index of the tag in the markup, used in error messages.
+         * @return The function applying the color.
+         * @throws IllegalArgumentException If the tag is neither a hex color nor a {@link Formatting} color.
+         */
+        private Consumer<StylableText> color(String name, int index) throws IllegalArgumentException {
+            if (name.length() == 7 && name.charAt(0) == '#') {
+                try {
+                    int rgb = Integer.parseInt(name.substring(1), 16);
+                    return text -> text.setColor(rgb);
+                }
+                catch (NumberFormatException ignored) {
+                    // Reported as an unknown tag below.
+                }
+            }
+
+            Formatting formatting = Formatting.byName(name);
+            if (formatting != null && formatting.isColor()) {
+                return text -> text.setColor(formatting);
+            }
+            throw new IllegalArgumentException("Unknown tag <" + name + "> at index " + index + " in markup: " + this.markup);
+        }
+
+        /**
+         * Appends the literal text collected since the last tag or placeholder, styled with the open tags.
+         */
+        private void flush() {
+            if (this.literal.isEmpty()) return;
+
+            this.result.append(this.style(new StylableText(this.literal.toString())));
+            this.literal.setLength(0);
+        }
+
+        /**
+         * Applies the style of every open tag to a segment of text.
+         *
+         * @param text The segment to style.
+         * @return The styled segment.
+         */
+        private StylableText style(StylableText text) {
+            for (Tag tag : this.openTags) {
+                tag.style().accept(text);
+            }
+            return text;
+        }
+
+        /**
+         * Maps the short form of a tag to its canonical name, so that {@code <b>} may be closed by {@code </bold>}.
+         *
+         * @param name The name of the tag, as written in the markup.
+         * @return The canonical name of the tag.
+         */
+        private static String canonicalName(String name) {
+            return switch (name) {
+                case "b" -> "bold";
+                case "i" -> "italic";
+                case "u", "underlined" -> "underline";
+                case "s", "st" -> "strikethrough";
+                case "obf" -> "obfuscated";
+                default -> name;
+            };
+        }
+    }
+}
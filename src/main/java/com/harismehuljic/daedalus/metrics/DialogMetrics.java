@@ -0,0 +1,147 @@
+package com.harismehuljic.daedalus.metrics;
+
+import com.harismehuljic.daedalus.data.DialogManager;
+import net.minecraft.util.Identifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collects metrics on the cost of dialogs, to find out which dialogs are affecting the server's tick time.
+ * <p>
+ * Metrics are recorded by Daedalus itself, and can be read through this class or with the {@code /daedalus stats}
+ * command. All durations are in nanoseconds and all sizes are in bytes.
+ * </p>
+ */
+public final class DialogMetrics {
+    private static final RateMeter OPENS = new RateMeter();
+    private static final Histogram BUILD_TIME = new Histogram();
+    private static final Histogram ENCODED_SIZE = new Histogram();
+    private static final Histogram CLICK_LATENCY = new Histogram();
+    private static final ConcurrentHashMap<Identifier, Histogram> CALLBACK_TIMES = new ConcurrentHashMap<>();
+
+    private DialogMetrics() {}
+
+    /**
+     * Records that dialogs have been opened.
+     *
+     * @param players The number of players the dialog was opened for.
+     */
+    public static void recordOpens(int players) {
+        OPENS.mark(players);
+    }
+
+    /**
+     * Records how long it took to compile a dialog.
+     *
+     * @param nanos The compile time in nanoseconds.
+     */
+    public static void recordBuildTime(long nanos) {
+        BUILD_TIME.record(nanos);
+    }
+
+    /**
+     * Records the size of an encoded show-dialog packet.
+     *
+     * @param bytes The size of the encoded packet in bytes.
+     */
+    public static void recordEncodedSize(int bytes) {
+        ENCODED_SIZE.record(bytes);
+    }
+
+    /**
+     * Records how long a click took from arriving on the network thread to its callback being started, including the
+     * time spent waiting for the server thread.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public static void recordClickLatency(long nanos) {
+        CLICK_LATENCY.record(nanos);
+    }
+
+    /**
+     * Records how long the callback of an action took to execute.
+     *
+     * @param action The identifier of the action.
+     * @param nanos  The execution time in nanoseconds.
+     */
+    public static void recordCallbackTime(Identifier action, long nanos) {
+        CALLBACK_TIMES.computeIfAbsent(action, id -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * Returns the number of dialogs opened per second, averaged over the last few seconds.
+     *
+     * @return The number of dialog opens per second.
+     */
+    public static double getOpensPerSecond() {
+        return OPENS.getRate();
+    }
+
+    /**
+     * Returns the total number of dialogs opened since the metrics were last reset.
+     *
+     * @return The total number of dialog opens.
+     */
+    public static long getTotalOpens() {
+        return OPENS.getTotal();
+    }
+
+    /**
+     * Returns the distribution of dialog compile times, in nanoseconds.
+     *
+     * @return A {@link Histogram.Snapshot} of the compile times.
+     */
+    public static Histogram.Snapshot getBuildTime() {
+        return BUILD_TIME.snapshot();
+    }
+
+    /**
+     * Returns the distribution of encoded show-dialog packet sizes, in bytes.
+     *
+     * @return A {@link Histogram.Snapshot} of the encoded sizes.
+     */
+    public static Histogram.Snapshot getEncodedSize() {
+        return ENCODED_SIZE.snapshot();
+    }
+
+    /**
+     * Returns the distribution of click-to-callback latencies, in nanoseconds.
+     *
+     * @return A {@link Histogram.Snapshot} of the click latencies.
+     */
+    public static Histogram.Snapshot getClickLatency() {
+        return CLICK_LATENCY.snapshot();
+    }
+
+    /**
+     * Returns the distribution of callback execution times per action, in nanoseconds.
+     *
+     * @return A map from action identifiers to a {@link Histogram.Snapshot} of their execution times.
+     */
+    public static Map<Identifier, Histogram.Snapshot> getCallbackTimes() {
+        return CALLBACK_TIMES.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().snapshot()));
+    }
+
+    /**
+     * Returns the number of players that currently have dialog callbacks registered.
+     *
+     * @return The size of the dialog callback registry.
+     */
+    public static int getRegistrySize() {
+        return DialogManager.getOpenSessionCount();
+    }
+
+    /**
+     * Removes every recorded metric.
+     */
+    public static void reset() {
+        OPENS.reset();
+        BUILD_TIME.reset();
+        ENCODED_SIZE.reset();
+        CLICK_LATENCY.reset();
+        CALLBACK_TIMES.clear();
+    }
+}
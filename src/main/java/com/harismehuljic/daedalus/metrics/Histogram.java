@@ -0,0 +1,99 @@
+package com.harismehuljic.daedalus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, such as durations in nanoseconds or sizes in bytes.
+ * <p>
+ * Values are counted in power-of-two buckets, so recording a value is a handful of atomic additions and the memory
+ * used by a histogram is fixed. Percentiles are therefore approximate, and are reported as the upper bound of the
+ * bucket they fall into, capped at the largest recorded value.
+ * </p>
+ */
+public class Histogram {
+    private static final int BUCKETS = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * A point-in-time view of a histogram.
+     *
+     * @param count The number of recorded values.
+     * @param mean  The mean of the recorded values.
+     * @param p50   The approximate median.
+     * @param p95   The approximate 95th percentile.
+     * @param p99   The approximate 99th percentile.
+     * @param max   The largest recorded value.
+     */
+    public record Snapshot(long count, double mean, long p50, long p95, long p99, long max) {
+        /**
+         * A snapshot of a histogram without any values.
+         */
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Records a value. This method may be called from any thread.
+     *
+     * @param value The value to record. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        this.buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        this.sum.add(value);
+        this.max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Takes a snapshot of the values recorded so far.
+     *
+     * @return A {@link Snapshot} of this histogram.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) return Snapshot.EMPTY;
+
+        long max = this.max.get();
+        return new Snapshot(
+                count,
+                (double) this.sum.sum() / count,
+                percentile(counts, count, 0.50, max),
+                percentile(counts, count, 0.95, max),
+                percentile(counts, count, 0.99, max),
+                max
+        );
+    }
+
+    /**
+     * Removes every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    private static long percentile(long[] counts, long count, double percentile, long max) {
+        long target = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                long upperBound = i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,75 @@
+package com.harismehuljic.daedalus.metrics;
+
+import net.minecraft.util.Util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how often an event happens per second, averaged over a short sliding window.
+ * <p>
+ * Events are counted in one slot per second, reusing the slots of seconds that have left the window, so a meter
+ * uses a fixed amount of memory. The second that is still in progress is not included in the rate.
+ * </p>
+ */
+public class RateMeter {
+    private static final int WINDOW_SECONDS = 10;
+
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Records that the event happened a number of times. This method may be called from any thread.
+     *
+     * @param events The number of events.
+     */
+    public void mark(long events) {
+        long second = Util.getMeasuringTimeMs() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+
+        long stamp = this.seconds.get(slot);
+        if (stamp != second && this.seconds.compareAndSet(slot, stamp, second)) {
+            this.counts.set(slot, 0);
+        }
+        this.counts.addAndGet(slot, events);
+        this.total.add(events);
+    }
+
+    /**
+     * Returns the average number of events per second over the last few completed seconds.
+     *
+     * @return The event rate per second.
+     */
+    public double getRate() {
+        long second = Util.getMeasuringTimeMs() / 1000;
+        long events = 0;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            long age = second - this.seconds.get(slot);
+            if (age > 0 && age < WINDOW_SECONDS) {
+                events += this.counts.get(slot);
+            }
+        }
+        return (double) events / (WINDOW_SECONDS - 1);
+    }
+
+    /**
+     * Returns the total number of events recorded.
+     *
+     * @return The total number of events.
+     */
+    public long getTotal() {
+        return this.total.sum();
+    }
+
+    /**
+     * Removes every recorded event.
+     */
+    public void reset() {
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            this.counts.set(slot, 0);
+            this.seconds.set(slot, 0);
+        }
+        this.total.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when the callback of a dialog action has finished executing. The event's duration is the time the
+ * callback took.
+ */
+@Name("daedalus.CallbackCompleted")
+@Label("Callback Completed")
+@Category({"Daedalus", "Clicks"})
+@Description("A dialog callback finished executing")
+public class CallbackCompletedEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Callback Class")
+    public Class<?> callbackClass;
+
+    @Label("Failed")
+    @Description("Whether the callback threw an exception")
+    public boolean failed;
+}
@@ -0,0 +1,25 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a routed dialog click is handed to its callback.
+ */
+@Name("daedalus.ClickDispatched")
+@Label("Click Dispatched")
+@Category({"Daedalus", "Clicks"})
+@Description("A dialog click was handed to its callback")
+public class ClickDispatchedEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Queue Time")
+    @Description("Time between the click being received and its callback being started")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueTime;
+}
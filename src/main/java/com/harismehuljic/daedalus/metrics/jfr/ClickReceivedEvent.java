@@ -0,0 +1,27 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a dialog click arrives on the network thread, whether it is routed or dropped.
+ */
+@Name("daedalus.ClickReceived")
+@Label("Click Received")
+@Category({"Daedalus", "Clicks"})
+@Description("A dialog click was received and routed on the network thread")
+public class ClickReceivedEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Payload Entries")
+    public int payloadEntries;
+
+    @Label("Result")
+    @Description("What happened to the click: queued, async, closed, invalid, unmatched, "
+            + "no_session or rate_limited")
+    public String result;
+}
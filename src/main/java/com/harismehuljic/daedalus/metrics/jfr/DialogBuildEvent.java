@@ -0,0 +1,28 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a {@link com.harismehuljic.daedalus.gui.DialogBuilder} compiles a dialog.
+ */
+@Name("daedalus.DialogBuild")
+@Label("Dialog Build")
+@Category({"Daedalus", "Dialogs"})
+@Description("A dialog was compiled into a template")
+public class DialogBuildEvent extends Event {
+    @Label("Title")
+    public String title;
+
+    @Label("Body Elements")
+    public int bodies;
+
+    @Label("Input Elements")
+    public int inputs;
+
+    @Label("Action Buttons")
+    public int buttons;
+}
@@ -0,0 +1,26 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a compiled dialog is opened for one or more players.
+ */
+@Name("daedalus.DialogOpen")
+@Label("Dialog Open")
+@Category({"Daedalus", "Dialogs"})
+@Description("A dialog was opened for one or more players")
+public class DialogOpenEvent extends Event {
+    @Label("Title")
+    public String title;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Placeholders")
+    @Description("Whether placeholders were filled in for this open")
+    public boolean placeholders;
+}
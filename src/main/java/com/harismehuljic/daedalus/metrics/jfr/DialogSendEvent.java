@@ -0,0 +1,28 @@
+package com.harismehuljic.daedalus.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded when a show-dialog packet is encoded to be sent to a player.
+ */
+@Name("daedalus.DialogSend")
+@Label("Dialog Send")
+@Category({"Daedalus", "Dialogs"})
+@Description("A show-dialog packet was encoded")
+public class DialogSendEvent extends Event {
+    @Label("Title")
+    public String title;
+
+    @Label("Encoded Size")
+    @DataAmount
+    public int size;
+
+    @Label("Cached")
+    @Description("Whether previously encoded bytes were reused")
+    public boolean cached;
+}
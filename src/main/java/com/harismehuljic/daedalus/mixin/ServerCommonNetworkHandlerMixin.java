@@ -2,6 +2,7 @@ package com.harismehuljic.daedalus.mixin;
 
 import com.harismehuljic.daedalus.data.DialogManager;
 import net.minecraft.network.packet.c2s.common.CustomClickActionC2SPacket;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerCommonNetworkHandler;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import org.spongepowered.asm.mixin.Mixin;
@@ -13,14 +14,24 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 public class ServerCommonNetworkHandlerMixin {
     /**
      * Handles custom click actions from the client, specifically for dialog location selection.
+     * <p>
+     * Clicks are routed as soon as they arrive on the network thread. Clicks that belong to the player's Daedalus
+     * dialog are cancelled there, so vanilla does not schedule them on the server thread. Any other click, such as a
+     * chat click event or another mod's dialog action, is left to vanilla, and ignored once it is handled again on the
+     * server thread.
+     * </p>
      *
      * @param packet The custom click action packet sent by the client.
      * @param ci     The callback information for the method injection.
      */
-    @Inject(method = "onCustomClickAction", at = @At("TAIL"))
+    @Inject(method = "onCustomClickAction", at = @At("HEAD"), cancellable = true)
     public void handleDialogLocationSelect(CustomClickActionC2SPacket packet, CallbackInfo ci) {
         if (!(((ServerCommonNetworkHandler) (Object) this instanceof ServerPlayNetworkHandler playNetworkHandler))) return;
 
-        DialogManager.executePlayerAction(packet, playNetworkHandler.player);
+        MinecraftServer server = playNetworkHandler.player.getServer();
+        if (server == null || server.isOnThread()) return;
+        if (DialogManager.executePlayerAction(packet, playNetworkHandler.player)) {
+            ci.cancel();
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.harismehuljic.daedalus.mixin;
+
+import com.harismehuljic.daedalus.data.DialogManager;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.s2c.common.ShowDialogS2CPacket;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ShowDialogS2CPacket.class)
+public class ShowDialogS2CPacketMixin {
+    @Shadow @Final @Mutable
+    public static PacketCodec<RegistryByteBuf, ShowDialogS2CPacket> CODEC;
+
+    /**
+     * Wraps the show-dialog packet codec so that dialogs sent to many players are only encoded once.
+     *
+     * @param ci The callback information for the method injection.
+     */
+    @Inject(method = "<clinit>", at = @At("TAIL"))
+    private static void wrapCodec(CallbackInfo ci) {
+        CODEC = DialogManager.getEncodedDialogCache().wrap(CODEC);
+    }
+}
@@ -1,8 +1,10 @@
 package com.harismehuljic.daedalus.testmod;
 
 import com.harismehuljic.daedalus.testmod.commands.TestDialogCommand;
+import com.harismehuljic.daedalus.testmod.load.LoadSimulator;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,5 +18,7 @@ public class TestMod implements ModInitializer {
     @Override
     public void onInitialize() {
         CommandRegistrationCallback.EVENT.register(TestDialogCommand::register);
+        ServerTickEvents.START_SERVER_TICK.register(LoadSimulator::onTickStart);
+        ServerTickEvents.END_SERVER_TICK.register(LoadSimulator::onTickEnd);
     }
 }
@@ -7,7 +7,9 @@ import com.harismehuljic.daedalus.gui.elements.body.TextBody;
 import com.harismehuljic.daedalus.gui.elements.input.NumberInput;
 import com.harismehuljic.daedalus.gui.elements.text.StylableText;
 import com.harismehuljic.daedalus.testmod.dialog.WelcomeDialog;
+import com.harismehuljic.daedalus.testmod.load.LoadSimulator;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import net.minecraft.command.CommandRegistryAccess;
@@ -16,8 +18,10 @@ import net.minecraft.item.Items;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 
+import static net.minecraft.server.command.CommandManager.argument;
 import static net.minecraft.server.command.CommandManager.literal;
 
 public class TestDialogCommand {
@@ -30,6 +34,15 @@ public class TestDialogCommand {
                 .then(literal("test_dialog_class")
                         .executes(TestDialogCommand::executeSendTestClass)
                 )
+                .then(literal("load")
+                        .then(argument("players", IntegerArgumentType.integer(1, 100000))
+                                .then(argument("clicks_per_second", IntegerArgumentType.integer(1))
+                                        .then(argument("seconds", IntegerArgumentType.integer(1, 3600))
+                                                .executes(TestDialogCommand::executeLoadTest)
+                                        )
+                                )
+                        )
+                )
         );
     }
 
@@ -57,6 +70,22 @@ public class TestDialogCommand {
         return 0;
     }
 
+    private static int executeLoadTest(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        boolean started = LoadSimulator.start(
+                source,
+                IntegerArgumentType.getInteger(context, "players"),
+                IntegerArgumentType.getInteger(context, "clicks_per_second"),
+                IntegerArgumentType.getInteger(context, "seconds")
+        );
+
+        if (!started) {
+            source.sendError(Text.literal("A load test is already running."));
+            return 0;
+        }
+        return 1;
+    }
+
     private static int executeSendTestClass(CommandContext<ServerCommandSource> context) {
         ServerCommandSource source = context.getSource();
         ServerPlayerEntity spe = source.getPlayer();
@@ -0,0 +1,334 @@
+package com.harismehuljic.daedalus.testmod.load;
+
+import com.harismehuljic.daedalus.data.DialogManager;
+import com.harismehuljic.daedalus.gui.DialogTemplate;
+import com.harismehuljic.daedalus.metrics.DialogMetrics;
+import com.harismehuljic.daedalus.metrics.Histogram;
+import com.harismehuljic.daedalus.testmod.TestMod;
+import com.mojang.authlib.GameProfile;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.minecraft.dialog.DialogActionButtonData;
+import net.minecraft.dialog.action.DynamicCustomDialogAction;
+import net.minecraft.dialog.input.BooleanInputControl;
+import net.minecraft.dialog.input.NumberRangeInputControl;
+import net.minecraft.dialog.input.SingleOptionInputControl;
+import net.minecraft.dialog.input.TextInputControl;
+import net.minecraft.dialog.type.DialogInput;
+import net.minecraft.dialog.type.MultiActionDialog;
+import net.minecraft.nbt.NbtByte;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtFloat;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.network.OffThreadException;
+import net.minecraft.network.packet.c2s.common.CustomClickActionC2SPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates many players answering dialogs at once, without any real clients.
+ * <p>
+ * A load test first measures the tick time of the idle server, then opens a {@link LoadTestDialog} for every simulated
+ * player. Simulated network threads then send click packets through the players' network handlers, and so through
+ * the same mixin a real client's clicks go through. Payloads are built from the compiled dialog in the same way the
+ * client builds them. Every answered dialog is opened again, so players keep clicking for the whole test.
+ * </p>
+ * <p>
+ * Simulated players are Fabric {@link FakePlayer}s, whose outgoing packets are discarded. Sending and encoding
+ * show-dialog packets is therefore not part of the measured load.
+ * </p>
+ */
+public class LoadSimulator {
+    private static final int BASELINE_TICKS = 100;
+    private static final int NETWORK_THREADS = 4;
+    private static final long NETWORK_PERIOD_MILLIS = 50;
+
+    private static volatile LoadSimulator current;
+
+    private enum Phase {
+        BASELINE,
+        RUNNING,
+        DONE
+    }
+
+    private final MinecraftServer server;
+    private final ServerCommandSource source;
+    private final int playerCount;
+    private final int clicksPerSecond;
+    private final int durationTicks;
+
+    private final Histogram baselineTickTimes = new Histogram();
+    private final Histogram loadTickTimes = new Histogram();
+    private final LongAdder clicksRouted = new LongAdder();
+    private final LongAdder clicksUnrouted = new LongAdder();
+    private final LongAdder callbacksExecuted = new LongAdder();
+
+    private final LoadTestDialog dialog = new LoadTestDialog((player, payload) -> this.onCallback(player));
+    private final List<FakePlayer> players = new ArrayList<>();
+    private Identifier[] actionIds;
+    private NbtCompound[] payloads;
+    private ScheduledExecutorService network;
+
+    private volatile Phase phase = Phase.BASELINE;
+    private int ticks = 0;
+    private long tickStart = 0;
+    private long openNanos;
+    private long heapGrowth;
+    private int registrySize;
+    private long rateLimitedBefore;
+    private long invalidBefore;
+
+    private LoadSimulator(ServerCommandSource source, int playerCount, int clicksPerSecond, int seconds) {
+        this.server = source.getServer();
+        this.source = source;
+        this.playerCount = playerCount;
+        this.clicksPerSecond = clicksPerSecond;
+        this.durationTicks = seconds * 20;
+    }
+
+    /**
+     * Starts a load test, unless one is already running.
+     *
+     * @param source          The command source the report is sent to.
+     * @param players         The number of simulated players.
+     * @param clicksPerSecond The number of clicks all simulated players send per second, combined.
+     * @param seconds         How long clicks are sent for.
+     * @return True if the load test was started, false if one is already running.
+     */
+    public static boolean start(ServerCommandSource source, int players, int clicksPerSecond, int seconds) {
+        if (current != null) return false;
+
+        current = new LoadSimulator(source, players, clicksPerSecond, seconds);
+        source.sendFeedback(() -> Text.literal(String.format("Measuring idle tick time for %d ticks, then starting a "
+                + "load test with %d players and %d clicks per second.", BASELINE_TICKS, players, clicksPerSecond)), false);
+        return true;
+    }
+
+    public static void onTickStart(MinecraftServer server) {
+        if (current != null) {
+            current.tickStart = System.nanoTime();
+        }
+    }
+
+    public static void onTickEnd(MinecraftServer server) {
+        if (current != null) {
+            current.tick();
+        }
+    }
+
+    private void tick() {
+        if (this.tickStart == 0) return;
+        long tickTime = System.nanoTime() - this.tickStart;
+
+        switch (this.phase) {
+            case BASELINE -> {
+                this.baselineTickTimes.record(tickTime);
+                if (++this.ticks >= BASELINE_TICKS) {
+                    this.startLoad();
+                }
+            }
+            case RUNNING -> {
+                this.loadTickTimes.record(tickTime);
+                if (++this.ticks >= this.durationTicks) {
+                    this.finish();
+                }
+            }
+        }
+    }
+
+    private void startLoad() {
+        ServerWorld world = this.server.getOverworld();
+        for (int i = 0; i < this.playerCount; i++) {
+            UUID uuid = UUID.nameUUIDFromBytes(("daedalus-load-" + i).getBytes(StandardCharsets.UTF_8));
+            this.players.add(FakePlayer.get(world, new GameProfile(uuid, "Sim" + i)));
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        this.dialog.openDialog(this.players);
+        this.openNanos = System.nanoTime() - start;
+        this.heapGrowth = usedHeap() - heapBefore;
+        this.registrySize = DialogMetrics.getRegistrySize();
+
+        this.buildPayloads(this.dialog.compile());
+        this.rateLimitedBefore = DialogManager.getRateLimitedClickCount();
+        this.invalidBefore = DialogManager.getInvalidClickCount();
+        DialogMetrics.reset();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.network = Executors.newScheduledThreadPool(NETWORK_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "Daedalus Load Test Network #" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < NETWORK_THREADS; i++) {
+            this.network.scheduleAtFixedRate(new ClickSender(i), 0, NETWORK_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        this.ticks = 0;
+        this.phase = Phase.RUNNING;
+    }
+
+    /**
+     * Builds the payload a client would send for each action button of the dialog, if none of the inputs are changed.
+     *
+     * @param template The compiled dialog.
+     */
+    private void buildPayloads(DialogTemplate template) {
+        MultiActionDialog dialog = (MultiActionDialog) template.getDialog();
+        List<DialogActionButtonData> buttons = dialog.actions();
+
+        this.actionIds = new Identifier[buttons.size()];
+        this.payloads = new NbtCompound[buttons.size()];
+        for (int i = 0; i < buttons.size(); i++) {
+            DynamicCustomDialogAction action = (DynamicCustomDialogAction) buttons.get(i).action().orElseThrow();
+            NbtCompound payload = action.additions().map(NbtCompound::copy).orElseGet(NbtCompound::new);
+            for (DialogInput input : dialog.common().inputs()) {
+                NbtElement value = initialValue(input);
+                if (value != null) {
+                    payload.put(input.key(), value);
+                }
+            }
+
+            this.actionIds[i] = action.id();
+            this.payloads[i] = payload;
+        }
+    }
+
+    private static NbtElement initialValue(DialogInput input) {
+        return switch (input.control()) {
+            case TextInputControl text -> NbtString.of(text.initial());
+            case BooleanInputControl bool -> NbtByte.of(bool.initial());
+            case NumberRangeInputControl number -> {
+                NumberRangeInputControl.RangeInfo range = number.rangeInfo();
+                yield NbtFloat.of(range.initial().orElse((range.start() + range.end()) / 2));
+            }
+            case SingleOptionInputControl option -> NbtString.of(option.entries().stream()
+                    .filter(SingleOptionInputControl.Entry::initial)
+                    .findFirst()
+                    .orElse(option.entries().getFirst())
+                    .id());
+            default -> null;
+        };
+    }
+
+    private void onCallback(ServerPlayerEntity player) {
+        this.callbacksExecuted.increment();
+        if (this.phase == Phase.RUNNING) {
+            this.dialog.openDialog(player);
+        }
+    }
+
+    private void finish() {
+        this.phase = Phase.DONE;
+        this.network.shutdownNow();
+        for (FakePlayer player : this.players) {
+            DialogManager.onPlayerDisconnect(player);
+        }
+
+        double seconds = this.durationTicks / 20.0;
+        Histogram.Snapshot baseline = this.baselineTickTimes.snapshot();
+        Histogram.Snapshot load = this.loadTickTimes.snapshot();
+        Histogram.Snapshot latency = DialogMetrics.getClickLatency();
+
+        List<String> report = List.of(
+                String.format("Load test finished: %d players for %.0f s.", this.playerCount, seconds),
+                String.format("Clicks: %d routed (%.0f/s), %d not routed, %d executed (%.0f/s), %d rate limited, "
+                                + "%d invalid.",
+                        this.clicksRouted.sum(), this.clicksRouted.sum() / seconds, this.clicksUnrouted.sum(),
+                        this.callbacksExecuted.sum(), this.callbacksExecuted.sum() / seconds,
+                        DialogManager.getRateLimitedClickCount() - this.rateLimitedBefore,
+                        DialogManager.getInvalidClickCount() - this.invalidBefore),
+                String.format("Click latency: p50 %.2f ms, p95 %.2f ms, max %.2f ms.",
+                        latency.p50() / 1.0e6, latency.p95() / 1.0e6, latency.max() / 1.0e6),
+                String.format("Tick time idle: mean %.2f ms, p95 %.2f ms, max %.2f ms.",
+                        baseline.mean() / 1.0e6, baseline.p95() / 1.0e6, baseline.max() / 1.0e6),
+                String.format("Tick time under load: mean %.2f ms, p95 %.2f ms, max %.2f ms.",
+                        load.mean() / 1.0e6, load.p95() / 1.0e6, load.max() / 1.0e6),
+                String.format("Opening the dialog for all players took %.2f ms.", this.openNanos / 1.0e6),
+                String.format("Registry: %d sessions, about %d bytes per session (heap growth while opening, "
+                                + "including uncollected garbage).",
+                        this.registrySize, this.heapGrowth / Math.max(this.registrySize, 1))
+        );
+
+        for (String line : report) {
+            TestMod.LOGGER.info(line);
+            this.source.sendFeedback(() -> Text.literal(line), false);
+        }
+        current = null;
+    }
+
+    /**
+     * Returns the heap currently in use, without forcing a garbage collection during the tick.
+     *
+     * @return The used heap in bytes.
+     */
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Sends clicks for a share of the simulated players, like a network thread handling their connections.
+     */
+    private class ClickSender implements Runnable {
+        private final int offset;
+        private int next;
+        private double budget = 0;
+
+        private ClickSender(int offset) {
+            this.offset = offset;
+            this.next = offset;
+        }
+
+        @Override
+        public void run() {
+            LoadSimulator simulator = LoadSimulator.this;
+            this.budget += simulator.clicksPerSecond * (NETWORK_PERIOD_MILLIS / 1000.0) / NETWORK_THREADS;
+
+            while (this.budget >= 1 && simulator.phase == Phase.RUNNING) {
+                this.budget--;
+                if (this.next >= simulator.players.size()) {
+                    this.next = this.offset;
+                    if (this.next >= simulator.players.size()) return;
+                }
+
+                this.click(simulator.players.get(this.next));
+                this.next += NETWORK_THREADS;
+            }
+        }
+
+        private void click(FakePlayer player) {
+            LoadSimulator simulator = LoadSimulator.this;
+            int button = ThreadLocalRandom.current().nextInt(simulator.actionIds.length);
+            CustomClickActionC2SPacket packet = new CustomClickActionC2SPacket(simulator.actionIds[button],
+                    Optional.of(simulator.payloads[button].copy()));
+
+            try {
+                player.networkHandler.onCustomClickAction(packet);
+                simulator.clicksRouted.increment();
+            }
+            catch (OffThreadException ignored) {
+                // Daedalus cancels the clicks it routes, so vanilla only hands clicks Daedalus did not route to the
+                // server thread, for example clicks on a dialog that was already answered.
+                simulator.clicksUnrouted.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.harismehuljic.daedalus.testmod.load;
+
+import com.harismehuljic.daedalus.gui.CustomDialog;
+import com.harismehuljic.daedalus.gui.elements.actions.ActionButton;
+import com.harismehuljic.daedalus.gui.elements.actions.DialogCallback;
+import com.harismehuljic.daedalus.gui.elements.body.TextBody;
+import com.harismehuljic.daedalus.gui.elements.input.BooleanInput;
+import com.harismehuljic.daedalus.gui.elements.input.ButtonSelectorInput;
+import com.harismehuljic.daedalus.gui.elements.input.NumberInput;
+import com.harismehuljic.daedalus.gui.elements.input.TextInput;
+import com.harismehuljic.daedalus.gui.elements.text.StylableText;
+import net.minecraft.util.Identifier;
+
+/**
+ * The dialog opened for every simulated player during a load test: a small form with one input of each type.
+ */
+public class LoadTestDialog extends CustomDialog {
+    private final DialogCallback callback;
+
+    public LoadTestDialog(DialogCallback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    protected void defineDialog() {
+        this.setDialogTitle("Load Test");
+
+        this.addBodyElement(new TextBody(new StylableText("This dialog is opened for simulated players.")));
+
+        this.addInputElement(new TextInput("name", 200, new StylableText("Name")).setMaxLength(16));
+        this.addInputElement(new NumberInput("amount", 200, new StylableText("Amount"), 0, 64, 32, 1));
+        this.addInputElement(new BooleanInput("confirm", new StylableText("Confirm"), false));
+        this.addInputElement(new ButtonSelectorInput("mode", 200, new StylableText("Mode"))
+                .addOption("buy", new StylableText("Buy"))
+                .addOption("sell", new StylableText("Sell")));
+
+        this.addActionButton(new ActionButton(Identifier.of("testmod", "load_submit"), new StylableText("Submit"), this.callback));
+        this.addActionButton(new ActionButton(Identifier.of("testmod", "load_cancel"), new StylableText("Cancel"), this.callback));
+    }
+}